@@ -0,0 +1,59 @@
+package com.yourname.animalcare.benchmarks;
+
+import com.yourname.animalcare.core.ConsumptionPlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planner cost for single barrels up to full double barrels and for small up to very large {@code hunger.max}
+ * values. {@code plan} builds the table from scratch as an uncached trough does; {@code extractFromTable} is the
+ * path taken when the container's plan cache still matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsumptionPlannerBenchmark {
+
+    @Param({"9", "27", "54"})
+    public int slots;
+
+    @Param({"100", "1000", "10000"})
+    public int requiredEnergy;
+
+    @Param({"42"})
+    public long seed;
+
+    private List<ConsumptionPlanner.Slot> inventory;
+    private ConsumptionPlanner.Table table;
+
+    @Setup
+    public void setUp() {
+        inventory = SyntheticInventories.mixedFeed(slots, seed);
+        table = ConsumptionPlanner.build(inventory, requiredEnergy);
+    }
+
+    @Benchmark
+    public ConsumptionPlanner.Plan plan() {
+        return ConsumptionPlanner.plan(inventory, requiredEnergy);
+    }
+
+    @Benchmark
+    public ConsumptionPlanner.Plan extractFromTable() {
+        return table.extract(requiredEnergy);
+    }
+}
@@ -0,0 +1,504 @@
+package com.yourname.animalcare.benchmarks;
+
+import com.yourname.animalcare.config.AnimalCareSettings;
+import com.yourname.animalcare.config.AnimalCareSettings.HungerSettings;
+import com.yourname.animalcare.config.AnimalCareSettings.PenSettings;
+import com.yourname.animalcare.config.AnimalCareSettings.TroughSettings;
+import com.yourname.animalcare.core.ConsumptionPlanner;
+import com.yourname.animalcare.core.FeedAllocator;
+import com.yourname.animalcare.core.FeedScheduler;
+import com.yourname.animalcare.core.HungerMath;
+import com.yourname.animalcare.core.PenFloodFill;
+import com.yourname.animalcare.util.BlockKeys;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Headless load test for the feeding pipeline. Builds a grid of fenced pens with animals and stocked troughs in a
+ * {@link VoxelGrid} and runs them through the plugin's own server-independent code in a tick loop: pen scans queue
+ * {@link PenFloodFill.Search searches} that are worked off under the per-tick fill budget, hunger ticks use
+ * {@link HungerMath}, troughs are woken, phased and fed in groups by the same {@link FeedScheduler} the trough manager
+ * uses, and consumption goes through a {@link ConsumptionPlanner.Memo} per trough. Settings come from the bundled
+ * {@code config.yml} (or {@code --config}). The Bukkit glue of the managers (entity lookups, inventories, block
+ * reads) is not part of the simulation.
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar com.yourname.animalcare.benchmarks.FarmSimulation --pens 2000</pre>
+ */
+public final class FarmSimulation {
+
+    private static final int TROUGH_SLOTS = 54;
+
+    private final Options options;
+    private final HungerSettings hungerSettings;
+    private final PenSettings penSettings;
+    private final TroughSettings troughSettings;
+    private final VoxelGrid grid;
+    private final PenFloodFill floodFill;
+    private final FeedScheduler<Trough> feedScheduler;
+    private final Herd herd = new Herd();
+
+    private final int[] animalX;
+    private final int[] animalZ;
+    private final int[] hunger;
+    private final Region[] animalRegion;
+    private final boolean[] pasture;
+    private final PenFloodFill.Search[] searches;
+    private final boolean[] queued;
+    private final ArrayDeque<Integer> detectionQueue = new ArrayDeque<>();
+    private final List<Trough> troughs = new ArrayList<>();
+    private final List<List<Trough>> penTroughs = new ArrayList<>();
+    private final List<Region> regions = new ArrayList<>();
+    private final Map<Long, Region> regionsByAnchor = new HashMap<>();
+
+    private long currentTick;
+    private long animalsFed;
+    private long energyConsumed;
+    private long plansBuilt;
+    private long planReuses;
+    private long floodFills;
+    private long fillSlices;
+
+    private FarmSimulation(Options options, AnimalCareSettings settings) {
+        this.options = options;
+        this.hungerSettings = settings.hunger();
+        this.penSettings = settings.pen();
+        this.troughSettings = settings.trough();
+        this.floodFill = new PenFloodFill(penSettings.detectionRadius(), penSettings.maxVerticalDelta(),
+            penSettings.maxFillNodes(), penSettings.escapeProbe());
+        this.feedScheduler = new FeedScheduler<>(troughSettings.feedIntervalTicks(),
+            trough -> trough.region != null ? trough.region.anchor : trough.id);
+
+        SplittableRandom random = new SplittableRandom(options.seed);
+        int pensPerSide = (int) Math.ceil(Math.sqrt(options.pens));
+        int margin = penSettings.detectionRadius() + 2;
+        this.grid = VoxelGrid.pens(pensPerSide, options.penSize, margin, false);
+        for (int pen = 0; pen < options.pens; pen++) {
+            if (random.nextDouble() < options.openGates) {
+                grid.openGate(pen % pensPerSide, pen / pensPerSide, options.penSize, margin);
+            }
+            penTroughs.add(new ArrayList<>());
+        }
+
+        int maxHunger = hungerSettings.max();
+        int threshold = Math.min(troughSettings.demandThreshold(), maxHunger);
+        animalX = new int[options.animals];
+        animalZ = new int[options.animals];
+        hunger = new int[options.animals];
+        animalRegion = new Region[options.animals];
+        pasture = new boolean[options.animals];
+        searches = new PenFloodFill.Search[options.animals];
+        queued = new boolean[options.animals];
+        for (int animal = 0; animal < options.animals; animal++) {
+            int pen = animal % options.pens;
+            int[] origin = VoxelGrid.penCentre(pen % pensPerSide, pen / pensPerSide, options.penSize, margin);
+            animalX[animal] = origin[0] - options.penSize / 2 + random.nextInt(options.penSize);
+            animalZ[animal] = origin[2] - options.penSize / 2 + random.nextInt(options.penSize);
+            hunger[animal] = threshold + random.nextInt(maxHunger - threshold + 1);
+        }
+
+        int[] energies = feedEnergies(troughSettings);
+        for (int index = 0; index < options.troughs; index++) {
+            Trough trough = new Trough(index,
+                SyntheticInventories.mixedFeed(TROUGH_SLOTS, random.nextLong(), energies));
+            troughs.add(trough);
+            penTroughs.get(index % options.pens).add(trough);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InvalidConfigurationException {
+        Options options = Options.parse(args);
+        AnimalCareSettings settings = loadSettings(options.config);
+        for (String warning : settings.warnings()) {
+            System.out.println("config warning: " + warning);
+        }
+        FarmSimulation simulation = new FarmSimulation(options, settings);
+        System.out.printf("pens %d  animals %d  troughs %d  ticks %d (+%d warm-up)  seed %d  config %s%n",
+            options.pens, options.animals, options.troughs, options.ticks, options.warmupTicks, options.seed,
+            options.config != null ? options.config : "bundled");
+        simulation.run();
+    }
+
+    private static AnimalCareSettings loadSettings(String path) throws IOException, InvalidConfigurationException {
+        if (path != null) {
+            return AnimalCareSettings.load(new File(path));
+        }
+        try (InputStream in = FarmSimulation.class.getResourceAsStream("/config.yml")) {
+            if (in == null) {
+                throw new IOException("Bundled config.yml not found on the class path");
+            }
+            return AnimalCareSettings.parse(
+                YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Energy values of the trough feed items, each feed item once.
+     */
+    private static int[] feedEnergies(TroughSettings settings) {
+        List<Integer> energies = new ArrayList<>();
+        for (Material material : settings.feedItems()) {
+            Integer energy = settings.feedEnergy().get(material);
+            if (energy != null && energy > 0) {
+                energies.add(energy);
+            }
+        }
+        if (energies.isEmpty()) {
+            throw new IllegalArgumentException("The configuration has no trough feed item with feed energy");
+        }
+        return energies.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void run() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported() ? bean : null;
+        for (long tick = 0; tick < options.warmupTicks; tick++) {
+            tick();
+        }
+        animalsFed = 0;
+        energyConsumed = 0;
+        plansBuilt = 0;
+        planReuses = 0;
+        floodFills = 0;
+        fillSlices = 0;
+
+        TickHistogram histogram = new TickHistogram();
+        long allocatedBefore = allocations != null ? allocations.getCurrentThreadAllocatedBytes() : -1L;
+        for (long tick = 0; tick < options.ticks; tick++) {
+            long start = System.nanoTime();
+            tick();
+            histogram.record(System.nanoTime() - start);
+        }
+        long allocated = allocations != null ? allocations.getCurrentThreadAllocatedBytes() - allocatedBefore : -1L;
+
+        histogram.print(System.out);
+        double seconds = histogram.totalNanos() / 1_000_000_000.0;
+        if (allocated >= 0) {
+            System.out.printf("allocation  %.1f MB total  %.0f B/tick  %.1f MB/s of tick time%n",
+                allocated / 1_048_576.0, (double) allocated / histogram.count(),
+                seconds > 0 ? allocated / 1_048_576.0 / seconds : 0.0);
+        } else {
+            System.out.println("allocation  not supported by this JVM");
+        }
+        int wild = 0;
+        for (Region region : animalRegion) {
+            if (region == null) {
+                wild++;
+            }
+        }
+        System.out.printf("pens        %d regions  %d wild animals  %d flood fills in %d slices  %d queued%n",
+            regions.size(), wild, floodFills, fillSlices, detectionQueue.size());
+        System.out.printf("feeding     %d animals fed  %d energy consumed  %d plans built  %d plans reused%n",
+            animalsFed, energyConsumed, plansBuilt, planReuses);
+    }
+
+    private void tick() {
+        currentTick++;
+        if (currentTick == 1 || currentTick % penSettings.scanIntervalTicks() == 0) {
+            scanPens();
+        }
+        runDetections();
+        if (currentTick % hungerSettings.intervalTicks() == 0) {
+            hungerTick();
+        }
+        List<Trough> due = feedScheduler.advance();
+        if (!due.isEmpty()) {
+            feedDue(due);
+        }
+    }
+
+    /**
+     * Queues a detection for every animal that has none pending, like the plugin's pen scan job.
+     */
+    private void scanPens() {
+        for (int animal = 0; animal < hunger.length; animal++) {
+            if (!queued[animal]) {
+                queued[animal] = true;
+                detectionQueue.addLast(animal);
+            }
+        }
+    }
+
+    /**
+     * Works the detection queue off under {@code pen.fill-budget-ms}, starting at most {@code pen.detections-per-tick}
+     * new fills. A fill that runs out of time stays at the head of the queue and resumes on the next tick.
+     */
+    private void runDetections() {
+        long budget = (long) (penSettings.fillBudgetMillis() * 1_000_000L);
+        long spent = 0L;
+        int startedFills = 0;
+        while (spent < budget) {
+            Integer next = detectionQueue.peekFirst();
+            if (next == null || (searches[next] == null && startedFills >= penSettings.detectionsPerTick())) {
+                return;
+            }
+            detectionQueue.pollFirst();
+            long started = System.nanoTime();
+            int animal = next;
+            PenFloodFill.Search search = searches[animal];
+            if (search == null) {
+                startedFills++;
+                int y = floodFill.findStartingY(grid, animalX[animal], 1, animalZ[animal]);
+                if (!grid.isWalkable(animalX[animal], y, animalZ[animal])) {
+                    completeDetection(animal, PenFloodFill.Result.escaped(0));
+                    spent += System.nanoTime() - started;
+                    continue;
+                }
+                search = floodFill.start(grid, animalX[animal], y, animalZ[animal]);
+                searches[animal] = search;
+                floodFills++;
+            }
+            fillSlices++;
+            if (search.advance(budget - spent)) {
+                searches[animal] = null;
+                completeDetection(animal, search.getResult());
+            } else {
+                detectionQueue.addFirst(animal);
+            }
+            spent += System.nanoTime() - started;
+        }
+    }
+
+    /**
+     * Applies a finished fill. An inconclusive fill keeps the animal's previous pen, as in the plugin.
+     */
+    private void completeDetection(int animal, PenFloodFill.Result result) {
+        queued[animal] = false;
+        if (result.isInconclusive()) {
+            return;
+        }
+        if (result.isEscaped()) {
+            moveAnimal(animal, null);
+            return;
+        }
+        long anchor = BlockKeys.block(result.getMinX(), result.getMinY(), result.getMinZ());
+        Region region = regionsByAnchor.get(anchor);
+        if (region == null) {
+            region = new Region(anchor);
+            regions.add(region);
+            regionsByAnchor.put(anchor, region);
+        }
+        int width = result.getMaxX() - result.getMinX() + 1;
+        int length = result.getMaxZ() - result.getMinZ() + 1;
+        pasture[animal] = width >= penSettings.minPenSize() && length >= penSettings.minPenSize();
+        moveAnimal(animal, region);
+        for (Trough trough : penTroughs.get(animal % options.pens)) {
+            trough.region = region;
+        }
+    }
+
+    private void moveAnimal(int animal, Region region) {
+        Region previous = animalRegion[animal];
+        if (previous == region) {
+            return;
+        }
+        if (previous != null) {
+            previous.members.remove(animal);
+        }
+        if (region != null) {
+            region.members.add(animal);
+        }
+        animalRegion[animal] = region;
+    }
+
+    private void hungerTick() {
+        int maxHunger = hungerSettings.max();
+        for (int animal = 0; animal < hunger.length; animal++) {
+            Region region = animalRegion[animal];
+            if (region == null) {
+                hunger[animal] = maxHunger;
+                continue;
+            }
+            hunger[animal] = HungerMath.add(hunger[animal],
+                HungerMath.tickDelta(pasture[animal], hungerSettings.captiveLoss(), hungerSettings.pastureChange()),
+                maxHunger);
+            if (hunger[animal] < troughSettings.demandThreshold()) {
+                for (Trough trough : penTroughs.get(animal % options.pens)) {
+                    // Empty troughs are unbound from their pen in the plugin, so demand no longer reaches them.
+                    if (trough.active && trough.region == region) {
+                        feedScheduler.wake(trough);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Feeds the due troughs pen by pen, like the trough manager's cycle: troughs of one pen share their phase and
+     * are allocated together, troughs that ran empty go back to sleep.
+     */
+    private void feedDue(List<Trough> due) {
+        Map<Region, List<Trough>> groups = new LinkedHashMap<>();
+        for (Trough trough : due) {
+            if (!trough.hasFeed()) {
+                retire(trough);
+                continue;
+            }
+            if (!feedScheduler.takeDemand(trough) || trough.region == null) {
+                continue;
+            }
+            groups.computeIfAbsent(trough.region, key -> new ArrayList<>()).add(trough);
+        }
+        for (List<Trough> group : groups.values()) {
+            boolean unmetDemand = feedScheduler.feedGroup(group, troughSettings.maxFeedsPerCycle(), herd);
+            for (Trough trough : group) {
+                if (!trough.hasFeed()) {
+                    retire(trough);
+                } else if (unmetDemand) {
+                    feedScheduler.retry(trough);
+                }
+            }
+        }
+    }
+
+    private void retire(Trough trough) {
+        feedScheduler.retire(trough);
+        trough.active = false;
+    }
+
+    private static final class Region {
+        private final long anchor;
+        private final Set<Integer> members = new LinkedHashSet<>();
+
+        private Region(long anchor) {
+            this.anchor = anchor;
+        }
+    }
+
+    /**
+     * The members of the pen a group of troughs is bound to.
+     */
+    private final class Herd implements FeedScheduler.Herd<Trough, Integer> {
+
+        @Override
+        public void offer(List<Trough> sources, FeedAllocator<Integer> allocator) {
+            for (Trough trough : sources) {
+                for (int animal : trough.region.members) {
+                    allocator.offer(animal, animal, HungerMath.deficit(hunger[animal], hungerSettings.max()),
+                        hunger[animal] < troughSettings.demandThreshold());
+                }
+            }
+        }
+
+        @Override
+        public void feed(Integer animal, int energy) {
+            hunger[animal] = HungerMath.add(hunger[animal], energy, hungerSettings.max());
+            animalsFed++;
+        }
+    }
+
+    private final class Trough extends FeedScheduler.Trough implements FeedScheduler.Source<Trough> {
+        private final int id;
+        private final int[] slotEnergy;
+        private final int[] slotAmount;
+        private final ConsumptionPlanner.Memo plans = new ConsumptionPlanner.Memo();
+        private Region region;
+        private boolean active = true;
+
+        private Trough(int id, List<ConsumptionPlanner.Slot> slots) {
+            this.id = id;
+            this.slotEnergy = new int[slots.size()];
+            this.slotAmount = new int[slots.size()];
+            for (ConsumptionPlanner.Slot slot : slots) {
+                slotEnergy[slot.index()] = slot.energy();
+                slotAmount[slot.index()] = slot.amount();
+            }
+        }
+
+        @Override
+        public Trough trough() {
+            return this;
+        }
+
+        @Override
+        public int passes() {
+            return 1;
+        }
+
+        @Override
+        public boolean hasFeed() {
+            for (int amount : slotAmount) {
+                if (amount > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int availableEnergy() {
+            int total = 0;
+            for (int slot = 0; slot < slotAmount.length; slot++) {
+                total += slotEnergy[slot] * slotAmount[slot];
+            }
+            return total;
+        }
+
+        @Override
+        public int consume(int requiredEnergy) {
+            List<ConsumptionPlanner.Slot> slots = new ArrayList<>();
+            for (int slot = 0; slot < slotAmount.length; slot++) {
+                if (slotAmount[slot] > 0) {
+                    slots.add(new ConsumptionPlanner.Slot(slot, slotEnergy[slot], slotAmount[slot]));
+                }
+            }
+            ConsumptionPlanner.Plan plan = plans.plan(slots, requiredEnergy);
+            if (plans.lastHit()) {
+                planReuses++;
+            } else {
+                plansBuilt++;
+            }
+            if (plan == null) {
+                return 0;
+            }
+            for (Map.Entry<Integer, Integer> usage : plan.slotUsage().entrySet()) {
+                slotAmount[usage.getKey()] -= usage.getValue();
+            }
+            energyConsumed += plan.totalEnergy();
+            return plan.totalEnergy();
+        }
+    }
+
+    private record Options(int pens, int animals, int troughs, int penSize, double openGates, long ticks,
+                           long warmupTicks, long seed, String config) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                if (!args[i].startsWith("--")) {
+                    throw new IllegalArgumentException("Expected --option value pairs, got " + args[i]);
+                }
+                values.put(args[i].substring(2), args[i + 1]);
+            }
+            int pens = Math.max(1, Integer.parseInt(values.getOrDefault("pens", "2000")));
+            return new Options(
+                pens,
+                Integer.parseInt(values.getOrDefault("animals", String.valueOf(pens * 10))),
+                Integer.parseInt(values.getOrDefault("troughs", String.valueOf(pens))),
+                Math.max(2, Integer.parseInt(values.getOrDefault("pen-size", "12"))),
+                Double.parseDouble(values.getOrDefault("open-gates", "0.05")),
+                Long.parseLong(values.getOrDefault("ticks", "12000")),
+                Long.parseLong(values.getOrDefault("warmup-ticks", "1200")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.get("config"));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.yourname.animalcare.benchmarks;
+
+import com.yourname.animalcare.core.PenFloodFill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pen detection on a 3x3 grid of fenced pens, measured from the centre pen. Closed pens fill their whole interior;
+ * with an open gate the fill runs until it crosses the detection radius, unless the escape probe finds the gate
+ * first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FloodFillBenchmark {
+
+    private static final int PENS_PER_SIDE = 3;
+
+    @Param({"8", "16", "32"})
+    public int penSize;
+
+    @Param({"false", "true"})
+    public boolean gateOpen;
+
+    @Param({"4"})
+    public int maxVerticalDelta;
+
+    @Param({"false", "true"})
+    public boolean escapeProbe;
+
+    private VoxelGrid grid;
+    private PenFloodFill floodFill;
+    private int[] start;
+
+    @Setup
+    public void setUp() {
+        int radius = penSize + 2;
+        int margin = radius + 2;
+        grid = VoxelGrid.pens(PENS_PER_SIDE, penSize, margin, gateOpen);
+        floodFill = new PenFloodFill(radius, maxVerticalDelta, 0, escapeProbe);
+        start = VoxelGrid.penCentre(PENS_PER_SIDE / 2, PENS_PER_SIDE / 2, penSize, margin);
+    }
+
+    @Benchmark
+    public PenFloodFill.Result fill() {
+        return floodFill.fill(grid, start[0], start[1], start[2]);
+    }
+}
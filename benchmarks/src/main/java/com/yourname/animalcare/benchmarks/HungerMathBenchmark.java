@@ -0,0 +1,61 @@
+package com.yourname.animalcare.benchmarks;
+
+import com.yourname.animalcare.core.HungerMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One hunger tick over a herd: every animal applies its pen's tick delta and reports its remaining deficit, which
+ * is the arithmetic the hunger task and the trough allocation run per animal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HungerMathBenchmark {
+
+    @Param({"10000"})
+    public int animals;
+
+    @Param({"100", "10000"})
+    public int maxHunger;
+
+    private int[] hunger;
+    private boolean[] pasture;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42L);
+        hunger = new int[animals];
+        pasture = new boolean[animals];
+        for (int i = 0; i < animals; i++) {
+            hunger[i] = random.nextInt(maxHunger + 1);
+            pasture[i] = random.nextBoolean();
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        long totalDeficit = 0;
+        for (int i = 0; i < animals; i++) {
+            int delta = HungerMath.tickDelta(pasture[i], 6, -1);
+            int next = HungerMath.add(hunger[i], delta, maxHunger);
+            totalDeficit += HungerMath.deficit(next, maxHunger);
+        }
+        return totalDeficit;
+    }
+}
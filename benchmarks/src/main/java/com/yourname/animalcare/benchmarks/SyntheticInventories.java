@@ -0,0 +1,39 @@
+package com.yourname.animalcare.benchmarks;
+
+import com.yourname.animalcare.core.ConsumptionPlanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded trough inventories for the planner benchmarks. The same seed always yields the same stacks, so runs on
+ * different machines plan identical inputs.
+ */
+final class SyntheticInventories {
+
+    /**
+     * Energy values of the bundled feed items (seeds, wheat, beetroot, potato, carrot).
+     */
+    static final int[] DEFAULT_ENERGIES = {5, 10, 15, 20, 25};
+
+    private SyntheticInventories() {
+    }
+
+    static List<ConsumptionPlanner.Slot> mixedFeed(int slotCount, long seed) {
+        return mixedFeed(slotCount, seed, DEFAULT_ENERGIES);
+    }
+
+    /**
+     * Stacks of random size whose energy values are drawn from {@code energies}.
+     */
+    static List<ConsumptionPlanner.Slot> mixedFeed(int slotCount, long seed, int[] energies) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ConsumptionPlanner.Slot> slots = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            int energy = energies[random.nextInt(energies.length)];
+            slots.add(new ConsumptionPlanner.Slot(slot, energy, 1 + random.nextInt(64)));
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,72 @@
+package com.yourname.animalcare.benchmarks;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Records the duration of every simulated tick and summarises them as percentiles and a power-of-two histogram.
+ */
+final class TickHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long total;
+
+    void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        total += nanos;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long totalNanos() {
+        return total;
+    }
+
+    void print(PrintStream out) {
+        if (count == 0) {
+            out.println("no ticks recorded");
+            return;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        out.printf("tick time   mean %s  p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n",
+            format(total / count), format(percentile(sorted, 0.50)), format(percentile(sorted, 0.90)),
+            format(percentile(sorted, 0.99)), format(percentile(sorted, 0.999)), format(sorted[count - 1]));
+
+        int[] buckets = new int[BUCKETS];
+        for (int i = 0; i < count; i++) {
+            long micros = sorted[i] / 1_000L;
+            int bucket = micros <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets[bucket]++;
+        }
+        int largest = Arrays.stream(buckets).max().orElse(1);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (buckets[bucket] == 0) {
+                continue;
+            }
+            long upper = 1L << bucket;
+            int width = (int) Math.ceil(40.0 * buckets[bucket] / largest);
+            out.printf("  < %9s  %8d  %s%n", format(upper * 1_000L), buckets[bucket], "#".repeat(width));
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static String format(long nanos) {
+        if (nanos >= 1_000_000L) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1fus", nanos / 1_000.0);
+    }
+}
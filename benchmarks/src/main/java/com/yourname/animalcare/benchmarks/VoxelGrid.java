@@ -0,0 +1,98 @@
+package com.yourname.animalcare.benchmarks;
+
+import com.yourname.animalcare.core.PenFloodFill;
+
+/**
+ * In-memory block grid with three kinds of cells: air, ground and fence. Walkability follows the plugin's rules:
+ * feet and head must be air and the block below must be ground (fences cannot be stood on).
+ */
+final class VoxelGrid implements PenFloodFill.Walkability {
+
+    static final byte AIR = 0;
+    static final byte GROUND = 1;
+    static final byte FENCE = 2;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final byte[] cells;
+
+    VoxelGrid(int sizeX, int sizeY, int sizeZ) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.cells = new byte[sizeX * sizeY * sizeZ];
+    }
+
+    /**
+     * Flat ground at {@code y = 0} with a {@code pensPerSide x pensPerSide} grid of fenced pens whose interior is
+     * {@code penSize} blocks wide. Neighbouring pens share a fence line and a free margin of {@code margin} blocks
+     * surrounds the whole grid. With {@code gateOpen} every pen has one missing fence block.
+     */
+    static VoxelGrid pens(int pensPerSide, int penSize, int margin, boolean gateOpen) {
+        int span = pensPerSide * (penSize + 1) + 1;
+        int size = span + 2 * margin;
+        VoxelGrid grid = new VoxelGrid(size, 4, size);
+        for (int x = 0; x < size; x++) {
+            for (int z = 0; z < size; z++) {
+                grid.set(x, 0, z, GROUND);
+            }
+        }
+        for (int i = 0; i < span; i++) {
+            for (int line = 0; line <= pensPerSide; line++) {
+                int offset = margin + line * (penSize + 1);
+                grid.set(margin + i, 1, offset, FENCE);
+                grid.set(offset, 1, margin + i, FENCE);
+            }
+        }
+        if (gateOpen) {
+            for (int penX = 0; penX < pensPerSide; penX++) {
+                for (int penZ = 0; penZ < pensPerSide; penZ++) {
+                    grid.openGate(penX, penZ, penSize, margin);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Removes the middle block of the pen's north fence. Pens in the first row open to the free margin, all others
+     * to their northern neighbour.
+     */
+    void openGate(int penX, int penZ, int penSize, int margin) {
+        set(margin + penX * (penSize + 1) + 1 + penSize / 2, 1, margin + penZ * (penSize + 1), AIR);
+    }
+
+    /**
+     * Centre cell of pen {@code (penX, penZ)} in a grid built by {@link #pens}, as {@code {x, y, z}}.
+     */
+    static int[] penCentre(int penX, int penZ, int penSize, int margin) {
+        int x = margin + penX * (penSize + 1) + 1 + penSize / 2;
+        int z = margin + penZ * (penSize + 1) + 1 + penSize / 2;
+        return new int[]{x, 1, z};
+    }
+
+    byte get(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) {
+            return AIR;
+        }
+        return cells[(y * sizeZ + z) * sizeX + x];
+    }
+
+    void set(int x, int y, int z, byte type) {
+        cells[(y * sizeZ + z) * sizeX + x] = type;
+    }
+
+    int sizeX() {
+        return sizeX;
+    }
+
+    int sizeZ() {
+        return sizeZ;
+    }
+
+    @Override
+    public boolean isWalkable(int x, int y, int z) {
+        return get(x, y, z) == AIR && get(x, y + 1, z) == AIR && get(x, y - 1, z) == GROUND;
+    }
+}
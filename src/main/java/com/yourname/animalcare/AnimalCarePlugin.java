@@ -1,33 +1,55 @@
 package com.yourname.animalcare;
 
+import com.yourname.animalcare.command.AnimalCareCommand;
+import com.yourname.animalcare.config.AnimalCareSettings;
+import com.yourname.animalcare.core.PhaseScheduler;
+import com.yourname.animalcare.core.TickBudgetGovernor;
+import com.yourname.animalcare.listener.AnimalTrackingListener;
 import com.yourname.animalcare.listener.FeedListener;
+import com.yourname.animalcare.listener.PenBlockListener;
+import com.yourname.animalcare.listener.PlayerMessenger;
 import com.yourname.animalcare.listener.TroughListener;
+import com.yourname.animalcare.manager.AnimalTracker;
 import com.yourname.animalcare.manager.HungerManager;
+import com.yourname.animalcare.manager.MetricsService;
 import com.yourname.animalcare.manager.PenDetectionService;
 import com.yourname.animalcare.manager.TroughManager;
-import org.bukkit.Material;
+import com.yourname.animalcare.stats.MetricsRegistry;
+import com.yourname.animalcare.stats.Profiler;
+import com.yourname.animalcare.util.ServerPlatform;
+import com.yourname.animalcare.util.ServerTickSampler;
+import org.bukkit.ChatColor;
 import org.bukkit.NamespacedKey;
-import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.logging.Level;
 
 public class AnimalCarePlugin extends JavaPlugin {
 
-    private static final int FEED_ENERGY_STEP = 5;
-
+    private volatile AnimalCareSettings settings;
     private HungerManager hungerManager;
     private PenDetectionService penDetectionService;
     private TroughManager troughManager;
+    private Profiler profiler;
+    private MetricsService metricsService;
+    private PhaseScheduler scheduler;
+    private TickBudgetGovernor governor;
+    private ServerTickSampler tickSampler;
+    private ServerPlatform platform;
+    private AnimalTracker animalTracker;
+    private ServerPlatform.Task schedulerTask;
 
     @Override
     public void onEnable() {
@@ -38,35 +60,248 @@ public class AnimalCarePlugin extends JavaPlugin {
             reloadConfig();
             config = getConfig();
         }
+        this.settings = AnimalCareSettings.parse(config);
+        logWarnings(settings);
         NamespacedKey hungerKey = new NamespacedKey(this, "hunger");
 
-        this.penDetectionService = new PenDetectionService(this, config);
-        this.hungerManager = new HungerManager(this, hungerKey, config, penDetectionService);
+        this.platform = ServerPlatform.detect(this);
+        this.profiler = new Profiler();
+        this.scheduler = new PhaseScheduler((job, ex) ->
+            getLogger().log(Level.SEVERE, "AnimalCare job '" + job.getName() + "' failed.", ex));
+        this.governor = createGovernor(settings.governor());
+        this.tickSampler = new ServerTickSampler(getServer());
+        this.animalTracker = new AnimalTracker(platform, entity -> hungerManager.isManagedEntity(entity));
+        this.penDetectionService = new PenDetectionService(settings.pen(), profiler, platform, animalTracker);
+        this.hungerManager = new HungerManager(hungerKey, settings.hunger(), penDetectionService, profiler,
+            animalTracker);
+        this.troughManager = new TroughManager(hungerManager, penDetectionService, settings.trough(), profiler,
+            governor, platform);
+        hungerManager.setHungerUpdateListener(troughManager::handleHungerUpdate);
+        registerGauges();
+        this.metricsService = new MetricsService(this, settings.metrics(), createMetricsRegistry());
+
+        if (animalTracker.isEventDriven()) {
+            getServer().getPluginManager().registerEvents(new AnimalTrackingListener(animalTracker), this);
+            animalTracker.seed();
+            getLogger().info("Folia detected: running AnimalCare work on region and entity schedulers.");
+        }
+        PlayerMessenger messenger = new PlayerMessenger(this::getSettings);
+        getServer().getPluginManager().registerEvents(messenger, this);
+        getServer().getPluginManager().registerEvents(
+            new FeedListener(this::getSettings, hungerManager, penDetectionService, messenger, platform),
+            this);
+        getServer().getPluginManager().registerEvents(new PenBlockListener(penDetectionService), this);
+        getServer().getPluginManager().registerEvents(
+            new TroughListener(this::getSettings, troughManager, hungerManager, penDetectionService, messenger),
+            this);
+
+        PluginCommand command = getCommand("animalcare");
+        if (command != null) {
+            AnimalCareCommand executor = new AnimalCareCommand(profiler, scheduler, governor, this::reloadSettings);
+            command.setExecutor(executor);
+            command.setTabCompleter(executor);
+        }
+
+        penDetectionService.start(scheduler);
+        hungerManager.start(scheduler, penDetectionService.getScanJob());
+        troughManager.start(scheduler);
+        troughManager.indexLoadedChunks();
+        metricsService.start(scheduler);
+        schedulerTask = platform.runGlobalTimer(this::runScheduler, 1L, 1L);
+    }
 
-        Map<Material, Integer> feedEnergy = loadFeedEnergy(config);
-        this.troughManager = new TroughManager(this, hungerManager, penDetectionService, config, feedEnergy);
+    public AnimalCareSettings getSettings() {
+        return settings;
+    }
 
-        getServer().getPluginManager().registerEvents(new FeedListener(config, hungerManager, penDetectionService, feedEnergy), this);
+    /**
+     * Re-reads config.yml on a background thread and applies it on the next global tick. A file that fails to parse
+     * leaves the running settings untouched; otherwise only the subsystems whose section changed are touched, so
+     * caches built from unchanged settings survive the reload.
+     */
+    public void reloadSettings(CommandSender sender) {
+        File file = new File(getDataFolder(), "config.yml");
+        platform.runAsync(() -> {
+            AnimalCareSettings next;
+            try {
+                next = AnimalCareSettings.load(file);
+            } catch (Exception ex) {
+                getLogger().log(Level.WARNING, "Failed to reload config.yml; keeping the current settings.", ex);
+                platform.executeGlobal(() -> sender.sendMessage(ChatColor.RED
+                    + "config.yml konnte nicht geladen werden, nichts geändert. / "
+                    + "Could not load config.yml, nothing changed: " + ex.getMessage()));
+                return;
+            }
+            platform.executeGlobal(() -> applySettings(next, sender));
+        });
+    }
 
-        ConfigurationSection debugSection = config.getConfigurationSection("debug");
-        boolean debugEnabled = debugSection != null && debugSection.getBoolean("enabled", false);
-        String debugToolName = debugSection != null ? debugSection.getString("tool", "WOODEN_SWORD") : "WOODEN_SWORD";
-        Material debugTool = Material.matchMaterial(debugToolName == null ? "WOODEN_SWORD" : debugToolName.toUpperCase());
-        if (debugTool == null) {
-            getLogger().warning("Unknown debug tool material: " + debugToolName + ". Falling back to WOODEN_SWORD.");
-            debugTool = Material.WOODEN_SWORD;
+    private void applySettings(AnimalCareSettings next, CommandSender sender) {
+        if (!isEnabled()) {
+            return;
         }
+        AnimalCareSettings previous = settings;
+        List<String> changed = new ArrayList<>();
+        if (!next.governor().equals(previous.governor())) {
+            AnimalCareSettings.GovernorSettings governorSettings = next.governor();
+            governor.configure(governorSettings.enabled(), governorSettings.softMspt(), governorSettings.hardMspt(),
+                governorSettings.maxBudgetMillis(), governorSettings.minBudgetMillis());
+            scheduler.setBudget(governor, governorSettings.maxDeferTicks());
+            changed.add("governor");
+        }
+        boolean penChanged = !next.pen().equals(previous.pen());
+        boolean hungerChanged = !next.hunger().equals(previous.hunger());
+        boolean rescheduled = false;
+        if (penChanged) {
+            rescheduled = penDetectionService.applySettings(next.pen());
+            changed.add("pen-detection");
+        }
+        if (hungerChanged) {
+            rescheduled |= hungerManager.applySettings(next.hunger());
+            changed.add("hunger");
+        }
+        if (rescheduled) {
+            penDetectionService.start(scheduler);
+            hungerManager.start(scheduler, penDetectionService.getScanJob());
+        }
+        if (!next.trough().equals(previous.trough())) {
+            troughManager.applySettings(next.trough());
+            changed.add("trough");
+        }
+        if (!next.metrics().equals(previous.metrics())) {
+            metricsService.applySettings(next.metrics());
+            changed.add("metrics");
+        }
+        if (!next.feeding().equals(previous.feeding())) {
+            changed.add("feeding");
+        }
+        if (!next.debug().equals(previous.debug())) {
+            changed.add("debug");
+        }
+        if (!next.messages().equals(previous.messages())) {
+            changed.add("messages");
+        }
+        settings = next;
+        logWarnings(next);
+        sender.sendMessage(ChatColor.GREEN + "AnimalCare-Konfiguration neu geladen. / AnimalCare configuration reloaded. "
+            + ChatColor.GRAY + (changed.isEmpty() ? "(unverändert / unchanged)" : "(" + String.join(", ", changed) + ")"));
+        if (!next.warnings().isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + String.valueOf(next.warnings().size())
+                + " Warnung(en), siehe Konsole. / warning(s), see console.");
+        }
+    }
 
-        getServer().getPluginManager().registerEvents(
-            new TroughListener(config, troughManager, hungerManager, penDetectionService, debugEnabled, debugTool), this);
+    private void logWarnings(AnimalCareSettings loaded) {
+        for (String warning : loaded.warnings()) {
+            getLogger().warning(warning);
+        }
+    }
+
+    private TickBudgetGovernor createGovernor(AnimalCareSettings.GovernorSettings governorSettings) {
+        TickBudgetGovernor created = new TickBudgetGovernor(governorSettings.enabled(), governorSettings.softMspt(),
+            governorSettings.hardMspt(), governorSettings.maxBudgetMillis(), governorSettings.minBudgetMillis());
+        scheduler.setBudget(created, governorSettings.maxDeferTicks());
+        return created;
+    }
+
+    private void runScheduler() {
+        TickBudgetGovernor.Transition transition = governor.recordTick(tickSampler.sample());
+        if (transition == TickBudgetGovernor.Transition.STARTED) {
+            getLogger().info(String.format(Locale.ROOT,
+                "Server under load (average tick %.1f ms): deferring AnimalCare background work.",
+                governor.getAverageMspt()));
+        } else if (transition == TickBudgetGovernor.Transition.ENDED) {
+            getLogger().info(String.format(Locale.ROOT,
+                "Load back to normal after %.1f s: deferred %d job runs and %d trough catch-ups.",
+                governor.getEpisodeTicks() / 20.0D, governor.getEpisodeDeferredRuns(),
+                governor.getEpisodeDeferredCatchUps()));
+        }
+        scheduler.tick();
+    }
+
+    private void registerGauges() {
+        profiler.registerGauge("cached pen info", penDetectionService::getCachedPenInfoCount);
+        profiler.registerGauge("pen regions", penDetectionService::getRegionCount);
+        profiler.registerGauge("known troughs", troughManager::getKnownTroughCount);
+        profiler.registerGauge("active troughs", troughManager::getActiveTroughCount);
+        profiler.registerGauge("scheduled troughs", troughManager::getScheduledTroughCount);
+        profiler.registerGauge("double barrels", troughManager::getDoubleBarrelCount);
+    }
+
+    private MetricsRegistry createMetricsRegistry() {
+        MetricsRegistry registry = new MetricsRegistry();
+        for (PenDetectionService.PenStatus status : PenDetectionService.PenStatus.values()) {
+            registry.gauge("animalcare_animals", "Managed animals by pen status at the last hunger tick",
+                () -> hungerManager.getAnimalCount(status), "status", status.name().toLowerCase(Locale.ROOT));
+        }
+        int maxHunger = hungerManager.getMaxHunger();
+        for (int bucket = 0; bucket < HungerManager.HUNGER_BUCKETS; bucket++) {
+            int index = bucket;
+            int from = bucket * maxHunger / HungerManager.HUNGER_BUCKETS;
+            int to = bucket == HungerManager.HUNGER_BUCKETS - 1
+                ? maxHunger : (bucket + 1) * maxHunger / HungerManager.HUNGER_BUCKETS - 1;
+            registry.gauge("animalcare_animals_by_hunger", "Managed animals per hunger range at the last hunger tick",
+                () -> hungerManager.getHungerCount(index), "range", from + "-" + to);
+        }
+        registry.gauge("animalcare_troughs", "Troughs by registry state", troughManager::getKnownTroughCount,
+            "state", "known");
+        registry.gauge("animalcare_troughs", "Troughs by registry state", troughManager::getActiveTroughCount,
+            "state", "active");
+        registry.gauge("animalcare_troughs", "Troughs by registry state", troughManager::getScheduledTroughCount,
+            "state", "scheduled");
+        registry.gauge("animalcare_double_barrels", "Detected double-barrel troughs",
+            troughManager::getDoubleBarrelCount);
+        registry.gauge("animalcare_pen_regions", "Detected pen regions", penDetectionService::getRegionCount);
+        registry.gauge("animalcare_governor_average_tick_microseconds", "Smoothed server tick time seen by the governor",
+            () -> (long) (governor.getAverageMspt() * 1000.0D));
+        registry.gauge("animalcare_governor_throttling", "1 while deferrable work is throttled",
+            () -> governor.isThrottling() ? 1L : 0L);
+        registry.counter("animalcare_governor_throttled_ticks_total", "Ticks spent throttling",
+            governor::getThrottledTicks);
+        registry.counter("animalcare_governor_deferred_total", "Work deferred by the governor",
+            governor::getDeferredRuns, "kind", "job");
+        registry.counter("animalcare_governor_deferred_total", "Work deferred by the governor",
+            governor::getDeferredCatchUps, "kind", "catch_up");
+        registry.counter("animalcare_animals_fed_total", "Animals fed by troughs",
+            () -> profiler.total(Profiler.Counter.ANIMALS_FED));
+        registry.histogram("animalcare_trough_cycle_feeds", "Animals fed per trough cycle", 1.0D,
+            profiler.feedsPerCycle());
+        registry.counter("animalcare_flood_fills_total", "Pen flood fills by result",
+            () -> profiler.total(Profiler.Counter.FLOOD_ENCLOSED), "result", "enclosed");
+        registry.counter("animalcare_flood_fills_total", "Pen flood fills by result",
+            () -> profiler.total(Profiler.Counter.FLOOD_ESCAPED), "result", "escaped");
+        registry.counter("animalcare_flood_fills_total", "Pen flood fills by result",
+            () -> profiler.total(Profiler.Counter.FLOOD_CAPPED), "result", "capped");
+        registry.counter("animalcare_flood_fill_nodes_total", "Cells visited by pen flood fills",
+            () -> profiler.total(Profiler.Counter.FLOOD_NODES));
+        registerCache(registry, "pen", Profiler.Counter.PEN_CACHE_HIT, Profiler.Counter.PEN_CACHE_MISS);
+        registerCache(registry, "container", Profiler.Counter.CONTAINER_CACHE_HIT,
+            Profiler.Counter.CONTAINER_CACHE_MISS);
+        registerCache(registry, "plan", Profiler.Counter.PLAN_CACHE_HIT, Profiler.Counter.PLAN_CACHE_MISS);
+        registerCache(registry, "block", Profiler.Counter.BLOCK_CACHE_HIT, Profiler.Counter.BLOCK_CACHE_MISS);
+        for (Profiler.Section section : Profiler.Section.values()) {
+            registry.histogram("animalcare_section_duration_seconds", "Main-thread time per run of a subsystem",
+                1e-9, profiler.latency(section), "section", section.name().toLowerCase(Locale.ROOT));
+        }
+        return registry;
+    }
 
-        hungerManager.start();
-        penDetectionService.start();
-        troughManager.start();
+    private void registerCache(MetricsRegistry registry, String cache, Profiler.Counter hit, Profiler.Counter miss) {
+        registry.counter("animalcare_cache_lookups_total", "Cache lookups by cache and result",
+            () -> profiler.total(hit), "cache", cache, "result", "hit");
+        registry.counter("animalcare_cache_lookups_total", "Cache lookups by cache and result",
+            () -> profiler.total(miss), "cache", cache, "result", "miss");
     }
 
     @Override
     public void onDisable() {
+        if (schedulerTask != null) {
+            schedulerTask.cancel();
+            schedulerTask = null;
+        }
+        if (metricsService != null) {
+            metricsService.stop();
+        }
         if (hungerManager != null) {
             hungerManager.stop();
         }
@@ -76,36 +311,9 @@ public class AnimalCarePlugin extends JavaPlugin {
         if (troughManager != null) {
             troughManager.stop();
         }
-    }
-
-    private Map<Material, Integer> loadFeedEnergy(FileConfiguration config) {
-        ConfigurationSection feedingSection = config.getConfigurationSection("feeding");
-        if (feedingSection == null) {
-            return Collections.emptyMap();
-        }
-        ConfigurationSection energySection = feedingSection.getConfigurationSection("item-energy");
-        if (energySection == null) {
-            return Collections.emptyMap();
-        }
-        Map<Material, Integer> energies = new HashMap<>();
-        for (String key : energySection.getKeys(false)) {
-            Material material = Material.matchMaterial(key.toUpperCase());
-            if (material == null) {
-                getLogger().warning("Unknown feed material in feeding.item-energy: " + key);
-                continue;
-            }
-            int value = energySection.getInt(key, 0);
-            if (value <= 0) {
-                getLogger().warning("Feed energy for " + material + " must be positive. Skipping entry.");
-                continue;
-            }
-            if (value % FEED_ENERGY_STEP != 0) {
-                getLogger().warning("Feed energy for " + material + " should be a multiple of " + FEED_ENERGY_STEP
-                    + " to keep hunger math integral. Using configured value " + value + ".");
-            }
-            energies.put(material, value);
+        if (animalTracker != null) {
+            animalTracker.clear();
         }
-        return Collections.unmodifiableMap(energies);
     }
 
     private boolean ensureConfigCompleteness(FileConfiguration config) {
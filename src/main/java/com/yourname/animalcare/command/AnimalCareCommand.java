@@ -0,0 +1,166 @@
+package com.yourname.animalcare.command;
+
+import com.yourname.animalcare.core.PhaseScheduler;
+import com.yourname.animalcare.core.TickBudgetGovernor;
+import com.yourname.animalcare.stats.Profiler;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@code /animalcare stats [reset]}: shows how much main-thread time each AnimalCare subsystem uses.
+ * {@code /animalcare reload}: re-reads config.yml without restarting the plugin.
+ */
+public class AnimalCareCommand implements TabExecutor {
+
+    private static final String STATS_PERMISSION = "animalcare.stats";
+    private static final String RELOAD_PERMISSION = "animalcare.reload";
+    private static final List<String> SUBCOMMANDS = List.of("stats", "reload");
+
+    private final Profiler profiler;
+    private final PhaseScheduler scheduler;
+    private final TickBudgetGovernor governor;
+    private final Consumer<CommandSender> reloader;
+
+    public AnimalCareCommand(Profiler profiler, PhaseScheduler scheduler, TickBudgetGovernor governor,
+                             Consumer<CommandSender> reloader) {
+        this.profiler = profiler;
+        this.scheduler = scheduler;
+        this.governor = governor;
+        this.reloader = reloader;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length > 0 && "reload".equalsIgnoreCase(args[0])) {
+            if (!sender.hasPermission(RELOAD_PERMISSION)) {
+                sender.sendMessage(ChatColor.RED + "Keine Berechtigung. / You do not have permission.");
+                return true;
+            }
+            sender.sendMessage(ChatColor.GRAY + "Lade AnimalCare-Konfiguration neu... / Reloading AnimalCare configuration...");
+            reloader.accept(sender);
+            return true;
+        }
+        if (args.length == 0 || !"stats".equalsIgnoreCase(args[0])) {
+            sender.sendMessage(ChatColor.YELLOW + "/" + label + " stats [reset] | reload");
+            return true;
+        }
+        if (!sender.hasPermission(STATS_PERMISSION)) {
+            sender.sendMessage(ChatColor.RED + "Keine Berechtigung. / You do not have permission.");
+            return true;
+        }
+        if (args.length > 1 && "reset".equalsIgnoreCase(args[1])) {
+            profiler.reset();
+            sender.sendMessage(ChatColor.GREEN + "AnimalCare-Statistik zurückgesetzt. / AnimalCare stats reset.");
+            return true;
+        }
+        sendStats(sender);
+        return true;
+    }
+
+    private void sendStats(CommandSender sender) {
+        long seconds = Math.max(1L, (System.currentTimeMillis() - profiler.getResetAtMillis()) / 1000L);
+        sender.sendMessage(ChatColor.GOLD + "AnimalCare stats " + ChatColor.GRAY + "(last " + seconds + "s, "
+            + "percentiles over the last " + Profiler.WINDOW + " runs)");
+        for (Profiler.Section section : Profiler.Section.values()) {
+            Profiler.SectionStats stats = profiler.stats(section);
+            if (stats.runs() == 0) {
+                continue;
+            }
+            double msPerSecond = stats.totalNanos() / 1_000_000.0D / seconds;
+            sender.sendMessage(ChatColor.AQUA + section.getLabel() + ChatColor.GRAY + ": " + stats.runs() + " runs, "
+                + String.format(Locale.ROOT, "%.3f ms/s", msPerSecond)
+                + ", p50 " + formatNanos(stats.p50()) + ", p95 " + formatNanos(stats.p95())
+                + ", p99 " + formatNanos(stats.p99()) + ", max " + formatNanos(stats.max()));
+        }
+
+        long fills = profiler.get(Profiler.Counter.FLOOD_ESCAPED) + profiler.get(Profiler.Counter.FLOOD_ENCLOSED)
+            + profiler.get(Profiler.Counter.FLOOD_CAPPED);
+        if (fills > 0) {
+            sender.sendMessage(ChatColor.AQUA + "flood fills" + ChatColor.GRAY + ": "
+                + profiler.get(Profiler.Counter.FLOOD_ENCLOSED) + " enclosed, "
+                + profiler.get(Profiler.Counter.FLOOD_ESCAPED) + " escaped, "
+                + profiler.get(Profiler.Counter.FLOOD_CAPPED) + " capped, "
+                + profiler.get(Profiler.Counter.FLOOD_NODES) / fills + " nodes per fill");
+        }
+        sender.sendMessage(ChatColor.AQUA + "cache hit rates" + ChatColor.GRAY + ": pen info "
+            + formatRate(profiler.hitRate(Profiler.Counter.PEN_CACHE_HIT, Profiler.Counter.PEN_CACHE_MISS))
+            + ", containers "
+            + formatRate(profiler.hitRate(Profiler.Counter.CONTAINER_CACHE_HIT, Profiler.Counter.CONTAINER_CACHE_MISS))
+            + ", plans "
+            + formatRate(profiler.hitRate(Profiler.Counter.PLAN_CACHE_HIT, Profiler.Counter.PLAN_CACHE_MISS))
+            + ", pen blocks "
+            + formatRate(profiler.hitRate(Profiler.Counter.BLOCK_CACHE_HIT, Profiler.Counter.BLOCK_CACHE_MISS)));
+        sender.sendMessage(ChatColor.AQUA + "animals fed" + ChatColor.GRAY + ": "
+            + profiler.get(Profiler.Counter.ANIMALS_FED));
+
+        for (PhaseScheduler.Job job : scheduler.getJobs()) {
+            long average = job.getRuns() > 0 ? job.getTotalNanos() / job.getRuns() : 0L;
+            sender.sendMessage(ChatColor.AQUA + "job " + job.getName() + ChatColor.GRAY + ": every "
+                + job.getIntervalTicks() + "t at +" + job.getOffset() + ", next in "
+                + Math.max(0L, job.getNextRunTick() - scheduler.getCurrentTick()) + "t, " + job.getRuns() + " runs, avg "
+                + formatNanos(average) + ", last " + formatNanos(job.getLastNanos()) + ", max "
+                + formatNanos(job.getMaxNanos())
+                + (job.getDeferrals() > 0 ? ", deferred " + job.getDeferrals() + "x" : ""));
+        }
+        if (governor.isEnabled()) {
+            long budget = governor.budgetNanos();
+            sender.sendMessage(ChatColor.AQUA + "governor" + ChatColor.GRAY + ": "
+                + String.format(Locale.ROOT, "avg tick %.1f ms", governor.getAverageMspt()) + ", "
+                + (governor.isThrottling() ? ChatColor.RED + "throttling" + ChatColor.GRAY : "idle") + ", budget "
+                + (budget == Long.MAX_VALUE ? "unlimited" : formatNanos(budget)) + "/tick, "
+                + governor.getThrottledTicks() + " throttled ticks in " + governor.getEpisodes() + " episodes, "
+                + governor.getDeferredRuns() + " deferred runs, " + governor.getDeferredCatchUps()
+                + " deferred catch-ups");
+        }
+
+        List<String> gauges = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : profiler.readGauges().entrySet()) {
+            gauges.add(entry.getKey() + " " + entry.getValue());
+        }
+        if (!gauges.isEmpty()) {
+            sender.sendMessage(ChatColor.AQUA + "sizes" + ChatColor.GRAY + ": " + String.join(", ", gauges));
+        }
+    }
+
+    private String formatNanos(long nanos) {
+        if (nanos >= 1_000_000L) {
+            return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0D);
+        }
+        return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000.0D);
+    }
+
+    private String formatRate(double rate) {
+        return rate < 0 ? "-" : String.format(Locale.ROOT, "%.1f%%", rate);
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (args.length == 1) {
+            return filter(SUBCOMMANDS, args[0]);
+        }
+        if (args.length == 2 && "stats".equalsIgnoreCase(args[0])) {
+            return filter(List.of("reset"), args[1]);
+        }
+        return Collections.emptyList();
+    }
+
+    private List<String> filter(List<String> options, String prefix) {
+        List<String> matches = new ArrayList<>();
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        for (String option : options) {
+            if (option.startsWith(lower)) {
+                matches.add(option);
+            }
+        }
+        return matches;
+    }
+}
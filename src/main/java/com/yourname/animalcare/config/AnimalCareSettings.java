@@ -0,0 +1,313 @@
+package com.yourname.animalcare.config;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fully resolved, immutable view of {@code config.yml}. Material and entity names are looked up, energy tables built
+ * and messages colored once while parsing, so nothing on a hot path touches the Bukkit configuration API. Parsing
+ * has no side effects and may run off the main thread; problems are collected in {@link #warnings()} instead of
+ * being logged. The section records compare by value, which lets a reload tell which subsystems actually changed.
+ */
+public record AnimalCareSettings(HungerSettings hunger, PenSettings pen, TroughSettings trough,
+                                 FeedingSettings feeding, GovernorSettings governor, MetricsSettings metrics,
+                                 DebugSettings debug, Messages messages, List<String> warnings) {
+
+    /**
+     * Trough and hand feeding use energy values in steps of five so hunger math stays integral.
+     */
+    public static final int FEED_ENERGY_STEP = 5;
+
+    public record HungerSettings(Set<EntityType> entities, int max, int captiveLoss, int pastureChange,
+                                 int feedAmount, long intervalTicks, int lowThreshold, double starvationDamage) {
+    }
+
+    public record PenSettings(Set<EntityType> entities, int detectionRadius, int minPenSize, int maxVerticalDelta,
+                              Set<Material> ignoreBlocks, long scanIntervalTicks, int detectionsPerTick,
+                              int maxFillNodes, boolean escapeProbe, double fillBudgetMillis) {
+
+        /**
+         * Whether cached pen results computed under {@code other} are still valid under these settings.
+         */
+        public boolean sameDetection(PenSettings other) {
+            return other != null && entities.equals(other.entities) && detectionRadius == other.detectionRadius
+                && minPenSize == other.minPenSize && maxVerticalDelta == other.maxVerticalDelta
+                && ignoreBlocks.equals(other.ignoreBlocks) && maxFillNodes == other.maxFillNodes;
+        }
+    }
+
+    public record TroughSettings(Set<Material> blocks, Set<Material> feedItems, Map<Material, Integer> feedEnergy,
+                                 double radius, long feedIntervalTicks, int maxFeedsPerCycle, int maxCatchUpCycles,
+                                 int demandThreshold, String nameTag, boolean penBound) {
+    }
+
+    public record FeedingSettings(Set<Material> handFeedItems, Map<Material, Integer> itemEnergy) {
+    }
+
+    public record GovernorSettings(boolean enabled, double softMspt, double hardMspt, double maxBudgetMillis,
+                                   double minBudgetMillis, long maxDeferTicks) {
+    }
+
+    public record MetricsSettings(long snapshotIntervalTicks, boolean prometheusEnabled, String bindAddress, int port,
+                                  boolean ndjsonEnabled, String ndjsonFile, long maxFileBytes, int maxFiles) {
+    }
+
+    public record DebugSettings(boolean enabled, Material tool) {
+    }
+
+    /**
+     * Player messages, color-translated and compiled into templates. Missing or empty messages are not sent.
+     * Identical messages repeated to a player within {@code coalesceMillis} are held back from chat and, if
+     * {@code actionBar} is set, shown with a repeat count in the action bar instead.
+     */
+    public record Messages(Map<String, MessageTemplate> templates, long coalesceMillis, boolean actionBar) {
+
+        public MessageTemplate get(String key) {
+            return templates.get(key);
+        }
+    }
+
+    /**
+     * Reads and parses the given file. Throws instead of falling back to defaults when the YAML is malformed, so a
+     * broken edit never replaces working settings.
+     */
+    public static AnimalCareSettings load(File file) throws IOException, InvalidConfigurationException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.load(file);
+        return parse(yaml);
+    }
+
+    public static AnimalCareSettings parse(ConfigurationSection config) {
+        List<String> warnings = new ArrayList<>();
+        Set<EntityType> entities = entityTypes(config.getStringList("entities"), warnings);
+
+        ConfigurationSection hungerSection = config.getConfigurationSection("hunger");
+        ConfigurationSection effectsSection = hungerSection != null
+            ? hungerSection.getConfigurationSection("effects") : null;
+        HungerSettings hunger = new HungerSettings(entities,
+            hungerSection != null ? hungerSection.getInt("max", 100) : 100,
+            hungerSection != null ? hungerSection.getInt("captive-loss", 5) : 5,
+            hungerSection != null ? hungerSection.getInt("pasture-change", -1) : -1,
+            hungerSection != null ? hungerSection.getInt("feed-amount", 25) : 25,
+            hungerSection != null ? hungerSection.getLong("interval-ticks", 20L * 60L) : 20L * 60L,
+            effectsSection != null ? effectsSection.getInt("low-threshold", 30) : 30,
+            effectsSection != null ? effectsSection.getDouble("starvation-damage", 1.0D) : 1.0D);
+
+        ConfigurationSection penSection = config.getConfigurationSection("pen");
+        PenSettings pen = new PenSettings(entities,
+            penSection != null ? penSection.getInt("detection-radius", 15) : 15,
+            penSection != null ? penSection.getInt("min-pen-size-xz", 10) : 10,
+            penSection != null ? penSection.getInt("max-vertical-delta", 4) : 4,
+            materials(penSection != null ? penSection.getStringList("ignore-blocks") : null, warnings),
+            penSection != null ? penSection.getLong("scan-interval-ticks", 20L * 60L) : 20L * 60L,
+            Math.max(1, penSection != null ? penSection.getInt("detections-per-tick", 16) : 16),
+            Math.max(0, penSection != null ? penSection.getInt("max-fill-nodes", 8192) : 8192),
+            penSection == null || penSection.getBoolean("escape-probe", true),
+            Math.max(0.05D, penSection != null ? penSection.getDouble("fill-budget-ms", 1.0D) : 1.0D));
+        // Walkable cells of one column are at least three blocks apart: feet, head room, next floor.
+        long columns = (2L * Math.max(1, pen.detectionRadius()) + 1) * (2L * Math.max(1, pen.detectionRadius()) + 1);
+        long fillBox = columns * ((2L * Math.max(1, pen.maxVerticalDelta()) + 3) / 3);
+        if (pen.maxFillNodes() > 0 && pen.maxFillNodes() < fillBox) {
+            warnings.add("pen.max-fill-nodes (" + pen.maxFillNodes() + ") is below the " + fillBox
+                + " cells a fill can reach within pen.detection-radius and pen.max-vertical-delta."
+                + " Large pens may keep their previous status.");
+        }
+
+        Map<Material, Integer> energy = feedEnergy(config, warnings);
+        FeedingSettings feeding = new FeedingSettings(
+            materials(config.getStringList("feeding.hand-feed-items"), warnings), energy);
+        if (feeding.handFeedItems().isEmpty()) {
+            // Unknown names in trough.feed-items are reported once, below.
+            feeding = new FeedingSettings(materials(config.getStringList("trough.feed-items"), new ArrayList<>()),
+                energy);
+        }
+
+        TroughSettings trough = troughSettings(config.getConfigurationSection("trough"), energy, hunger.max(),
+            warnings);
+
+        ConfigurationSection governorSection = config.getConfigurationSection("governor");
+        double softMspt = governorSection != null ? governorSection.getDouble("soft-mspt", 40.0D) : 40.0D;
+        double hardMspt = governorSection != null ? governorSection.getDouble("hard-mspt", 50.0D) : 50.0D;
+        if (hardMspt < softMspt) {
+            warnings.add("governor.hard-mspt is below governor.soft-mspt. Using " + softMspt + " for both.");
+        }
+        GovernorSettings governor = new GovernorSettings(
+            governorSection == null || governorSection.getBoolean("enabled", true), softMspt, hardMspt,
+            governorSection != null ? governorSection.getDouble("max-budget-ms", 5.0D) : 5.0D,
+            governorSection != null ? governorSection.getDouble("min-budget-ms", 0.5D) : 0.5D,
+            governorSection != null ? governorSection.getLong("max-defer-ticks", 600L) : 600L);
+
+        MetricsSettings metrics = metricsSettings(config.getConfigurationSection("metrics"));
+
+        ConfigurationSection debugSection = config.getConfigurationSection("debug");
+        String debugToolName = debugSection != null ? debugSection.getString("tool", "WOODEN_SWORD") : "WOODEN_SWORD";
+        Material debugTool = Material.matchMaterial(debugToolName == null ? "WOODEN_SWORD" : debugToolName.toUpperCase());
+        if (debugTool == null) {
+            warnings.add("Unknown debug tool material: " + debugToolName + ". Falling back to WOODEN_SWORD.");
+            debugTool = Material.WOODEN_SWORD;
+        }
+        DebugSettings debug = new DebugSettings(debugSection != null && debugSection.getBoolean("enabled", false),
+            debugTool);
+
+        Map<String, MessageTemplate> messages = new LinkedHashMap<>();
+        ConfigurationSection messageSection = config.getConfigurationSection("messages");
+        if (messageSection != null) {
+            for (String key : messageSection.getKeys(false)) {
+                String message = messageSection.getString(key);
+                if (message != null && !message.isEmpty()) {
+                    messages.put(key, MessageTemplate.compile(ChatColor.translateAlternateColorCodes('&', message)));
+                }
+            }
+        }
+
+        ConfigurationSection deliverySection = config.getConfigurationSection("message-delivery");
+        long coalesceMillis = deliverySection != null ? deliverySection.getLong("coalesce-ms", 1500L) : 1500L;
+        boolean actionBar = deliverySection == null || deliverySection.getBoolean("action-bar", true);
+
+        return new AnimalCareSettings(hunger, pen, trough, feeding, governor, metrics, debug,
+            new Messages(Collections.unmodifiableMap(messages), Math.max(0L, coalesceMillis), actionBar),
+            Collections.unmodifiableList(warnings));
+    }
+
+    private static TroughSettings troughSettings(ConfigurationSection section, Map<Material, Integer> energy,
+                                                 int maxHunger, List<String> warnings) {
+        Set<Material> blocks = materials(section != null ? section.getStringList("blocks") : List.of("BARREL"),
+            warnings);
+        Set<Material> configured = materials(section != null ? section.getStringList("feed-items") : null, warnings);
+        if (configured.isEmpty() && !energy.isEmpty()) {
+            configured = energy.keySet();
+        }
+        Set<Material> valid = EnumSet.noneOf(Material.class);
+        for (Material material : configured) {
+            if (!energy.containsKey(material)) {
+                warnings.add("Feed item " + material + " has no configured energy and will be ignored.");
+                continue;
+            }
+            valid.add(material);
+        }
+        if (valid.isEmpty() && !energy.isEmpty()) {
+            if (!configured.isEmpty()) {
+                warnings.add("No trough feed items matched configured energy values; "
+                    + "falling back to all configured feedable items.");
+            }
+            valid.addAll(energy.keySet());
+        }
+        return new TroughSettings(blocks, Collections.unmodifiableSet(valid), energy,
+            section != null ? section.getDouble("radius", 6.0D) : 6.0D,
+            Math.max(1L, section != null ? section.getLong("feed-interval-ticks", 20L * 10L) : 20L * 10L),
+            section != null ? section.getInt("max-feed-per-cycle", 3) : 3,
+            Math.max(0, section != null ? section.getInt("max-catch-up-cycles", 3) : 3),
+            section != null ? section.getInt("demand-threshold", maxHunger - 10) : maxHunger - 10,
+            section != null ? section.getString("name-tag", "[Trough]") : "[Trough]",
+            section == null || section.getBoolean("pen-bound", true));
+    }
+
+    private static MetricsSettings metricsSettings(ConfigurationSection section) {
+        ConfigurationSection prometheus = section != null ? section.getConfigurationSection("prometheus") : null;
+        ConfigurationSection ndjson = section != null ? section.getConfigurationSection("ndjson") : null;
+        return new MetricsSettings(
+            Math.max(20L, section != null ? section.getLong("snapshot-interval-ticks", 200L) : 200L),
+            prometheus != null && prometheus.getBoolean("enabled", false),
+            prometheus != null ? prometheus.getString("bind-address", "127.0.0.1") : "127.0.0.1",
+            prometheus != null ? prometheus.getInt("port", 9464) : 9464,
+            ndjson != null && ndjson.getBoolean("enabled", false),
+            ndjson != null ? ndjson.getString("file", "metrics/animalcare.ndjson") : "metrics/animalcare.ndjson",
+            (ndjson != null ? ndjson.getLong("max-file-size-kb", 10240L) : 10240L) * 1024L,
+            ndjson != null ? ndjson.getInt("max-files", 5) : 5);
+    }
+
+    private static Map<Material, Integer> feedEnergy(ConfigurationSection config, List<String> warnings) {
+        ConfigurationSection energySection = config.getConfigurationSection("feeding.item-energy");
+        if (energySection == null) {
+            return Collections.emptyMap();
+        }
+        Map<Material, Integer> energies = new EnumMap<>(Material.class);
+        for (String key : energySection.getKeys(false)) {
+            Material material = Material.matchMaterial(key.toUpperCase());
+            if (material == null) {
+                warnings.add("Unknown feed material in feeding.item-energy: " + key);
+                continue;
+            }
+            int value = energySection.getInt(key, 0);
+            if (value <= 0) {
+                warnings.add("Feed energy for " + material + " must be positive. Skipping entry.");
+                continue;
+            }
+            if (value % FEED_ENERGY_STEP != 0) {
+                warnings.add("Feed energy for " + material + " should be a multiple of " + FEED_ENERGY_STEP
+                    + " to keep hunger math integral. Using configured value " + value + ".");
+            }
+            energies.put(material, value);
+        }
+        return Collections.unmodifiableMap(energies);
+    }
+
+    private static Set<EntityType> entityTypes(List<String> values, List<String> warnings) {
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        Set<EntityType> set = EnumSet.noneOf(EntityType.class);
+        for (String value : values) {
+            try {
+                set.add(EntityType.valueOf(value.toUpperCase()));
+            } catch (IllegalArgumentException ex) {
+                warnings.add("Unknown entity type in config: " + value);
+            }
+        }
+        return Collections.unmodifiableSet(set);
+    }
+
+    private static Set<Material> materials(List<String> values, List<String> warnings) {
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        Set<Material> set = EnumSet.noneOf(Material.class);
+        for (String value : values) {
+            Material material = resolveMaterial(value);
+            if (material != null) {
+                set.add(material);
+            } else {
+                warnings.add("Unknown material in configuration list: " + value);
+            }
+        }
+        return Collections.unmodifiableSet(set);
+    }
+
+    private static Material resolveMaterial(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+
+        Material material = Material.matchMaterial(trimmed, true);
+        if (material != null) {
+            return material;
+        }
+
+        String upper = trimmed.toUpperCase(Locale.ROOT);
+        if ("GRASS".equals(upper)) {
+            return Material.SHORT_GRASS;
+        }
+
+        return Material.matchMaterial(upper);
+    }
+}
@@ -0,0 +1,106 @@
+package com.yourname.animalcare.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A player message split once into literal text and {@code %name%} placeholder slots, so sending it only joins the
+ * pieces. The last rendered value is remembered: a player clicking the same animal over and over gets the same
+ * string instance back without any string work.
+ */
+public final class MessageTemplate {
+
+    private final String source;
+    private final String[] literals;
+    private final String[] placeholders;
+    private volatile Rendered last;
+
+    private record Rendered(String placeholder, String value, String text) {
+    }
+
+    private MessageTemplate(String source, String[] literals, String[] placeholders) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Splits {@code text} at every {@code %name%} whose name consists of letters, digits, dashes or underscores.
+     * Other percent signs stay literal.
+     */
+    public static MessageTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int index = text.indexOf('%');
+        while (index >= 0) {
+            int end = text.indexOf('%', index + 1);
+            if (end < 0) {
+                break;
+            }
+            if (end > index + 1 && isName(text, index + 1, end)) {
+                literals.add(text.substring(literalStart, index));
+                placeholders.add(text.substring(index, end + 1));
+                literalStart = end + 1;
+                index = text.indexOf('%', literalStart);
+            } else {
+                index = end;
+            }
+        }
+        literals.add(text.substring(literalStart));
+        return new MessageTemplate(text, literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    private static boolean isName(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The message with placeholders left as written.
+     */
+    public String render() {
+        return source;
+    }
+
+    /**
+     * The message with every occurrence of {@code placeholder} (including its percent signs) replaced by
+     * {@code value}.
+     */
+    public String render(String placeholder, String value) {
+        if (placeholders.length == 0) {
+            return source;
+        }
+        Rendered cached = last;
+        if (cached != null && cached.placeholder().equals(placeholder) && cached.value().equals(value)) {
+            return cached.text();
+        }
+        StringBuilder builder = new StringBuilder(source.length() + value.length() * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]).append(placeholders[i].equals(placeholder) ? value : placeholders[i]);
+        }
+        String text = builder.append(literals[placeholders.length]).toString();
+        last = new Rendered(placeholder, value, text);
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MessageTemplate template && template.source.equals(source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
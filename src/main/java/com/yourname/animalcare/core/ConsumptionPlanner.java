@@ -0,0 +1,206 @@
+package com.yourname.animalcare.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded knapsack behind trough consumption, free of any server types. A {@link Table} records which energy sums
+ * the feed stacks can reach exactly; a plan takes the largest reachable sum that does not exceed the request.
+ */
+public final class ConsumptionPlanner {
+
+    private ConsumptionPlanner() {
+    }
+
+    /**
+     * Builds the reachability table for every energy sum up to {@code capacity}. Entries below the capacity only
+     * depend on smaller sums, so a table answers every request up to its capacity.
+     */
+    public static Table build(List<Slot> slots, int capacity) {
+        int size = Math.max(0, capacity);
+        int[] previous = new int[size + 1];
+        int[] usedSlot = new int[size + 1];
+        int[] usedCount = new int[size + 1];
+        Arrays.fill(previous, -1);
+        Arrays.fill(usedSlot, -1);
+        previous[0] = 0;
+
+        int slotCount = 0;
+        for (Slot slot : slots) {
+            slotCount = Math.max(slotCount, slot.index() + 1);
+        }
+        int[] slotEnergy = new int[slotCount];
+        int[] slotAmount = new int[slotCount];
+        for (Slot slot : slots) {
+            if (slot.index() >= 0) {
+                slotEnergy[slot.index()] = slot.energy();
+                slotAmount[slot.index()] = slot.amount();
+            }
+        }
+
+        for (Slot slot : slots) {
+            int energyPerItem = slot.energy();
+            if (energyPerItem <= 0 || energyPerItem > size || slot.amount() <= 0) {
+                continue;
+            }
+            int maxUse = Math.min(slot.amount(), size / energyPerItem);
+            for (int energy = size; energy >= 0; energy--) {
+                if (previous[energy] == -1) {
+                    continue;
+                }
+                for (int count = 1; count <= maxUse; count++) {
+                    int next = energy + count * energyPerItem;
+                    if (next > size) {
+                        break;
+                    }
+                    if (previous[next] != -1) {
+                        continue;
+                    }
+                    previous[next] = energy;
+                    usedSlot[next] = slot.index();
+                    usedCount[next] = count;
+                }
+            }
+        }
+        return new Table(size, previous, usedSlot, usedCount, slotEnergy, slotAmount);
+    }
+
+    /**
+     * Convenience for one-off requests: builds a table sized to the request and extracts the plan.
+     */
+    public static Plan plan(List<Slot> slots, int requiredEnergy) {
+        return build(slots, requiredEnergy).extract(requiredEnergy);
+    }
+
+    /**
+     * Keeps the table of one inventory between requests. Consuming only shrinks stacks, and a shrunken inventory
+     * reaches a subset of the sums it reached before, so the plan walked back from the old table is still the best
+     * one as long as its stacks are still there. The table is rebuilt when stacks grew or changed, when the plan
+     * no longer fits, or when the request exceeds the table's capacity.
+     */
+    public static final class Memo {
+        private Table table;
+        private boolean lastHit;
+
+        public Plan plan(List<Slot> slots, int requiredEnergy) {
+            if (table != null && table.capacity() >= requiredEnergy && table.covers(slots)) {
+                Plan plan = table.extract(requiredEnergy);
+                if (plan == null || fits(plan, slots)) {
+                    lastHit = true;
+                    return plan;
+                }
+            }
+            lastHit = false;
+            table = build(slots, requiredEnergy);
+            return table.extract(requiredEnergy);
+        }
+
+        /**
+         * True if the last {@link #plan} call was answered from the kept table.
+         */
+        public boolean lastHit() {
+            return lastHit;
+        }
+
+        private static boolean fits(Plan plan, List<Slot> slots) {
+            int matched = 0;
+            for (Slot slot : slots) {
+                Integer used = plan.slotUsage().get(slot.index());
+                if (used != null) {
+                    if (slot.amount() < used) {
+                        return false;
+                    }
+                    matched++;
+                }
+            }
+            return matched == plan.slotUsage().size();
+        }
+    }
+
+    /**
+     * One inventory slot holding {@code amount} items worth {@code energy} each.
+     */
+    public record Slot(int index, int energy, int amount) {
+    }
+
+    /**
+     * Items to take per slot index and the energy they provide.
+     */
+    public record Plan(Map<Integer, Integer> slotUsage, int totalEnergy) {
+    }
+
+    public static final class Table {
+        private final int capacity;
+        private final int[] previous;
+        private final int[] usedSlot;
+        private final int[] usedCount;
+        private final int[] slotEnergy;
+        private final int[] slotAmount;
+
+        private Table(int capacity, int[] previous, int[] usedSlot, int[] usedCount, int[] slotEnergy,
+                      int[] slotAmount) {
+            this.capacity = capacity;
+            this.previous = previous;
+            this.usedSlot = usedSlot;
+            this.usedCount = usedCount;
+            this.slotEnergy = slotEnergy;
+            this.slotAmount = slotAmount;
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        /**
+         * True if every slot of {@code slots} held at least as many items of the same energy when the table was
+         * built. Such an inventory can only reach a subset of the table's energy sums.
+         */
+        boolean covers(List<Slot> slots) {
+            for (Slot slot : slots) {
+                int index = slot.index();
+                if (index < 0 || index >= slotEnergy.length || slotEnergy[index] != slot.energy()
+                        || slotAmount[index] < slot.amount()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Walks the table back from the largest reachable energy not above {@code requiredEnergy}; returns
+         * {@code null} when nothing can be taken.
+         */
+        public Plan extract(int requiredEnergy) {
+            int target = 0;
+            for (int energy = Math.min(requiredEnergy, capacity); energy > 0; energy--) {
+                if (previous[energy] != -1) {
+                    target = energy;
+                    break;
+                }
+            }
+            if (target <= 0) {
+                return null;
+            }
+
+            Map<Integer, Integer> usage = new HashMap<>();
+            int cursor = target;
+            while (cursor > 0) {
+                int slotIndex = usedSlot[cursor];
+                int count = usedCount[cursor];
+                if (slotIndex < 0 || count <= 0) {
+                    break;
+                }
+                usage.merge(slotIndex, count, Integer::sum);
+                cursor = previous[cursor];
+            }
+
+            if (usage.isEmpty()) {
+                return null;
+            }
+            return new Plan(Collections.unmodifiableMap(usage), target);
+        }
+    }
+}
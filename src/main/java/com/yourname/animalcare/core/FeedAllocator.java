@@ -0,0 +1,135 @@
+package com.yourname.animalcare.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Hands the hungry animals of one feeding group out to the troughs of that group. Every animal is offered once; the
+ * {@code perSourceLimit} largest deficits per trough are kept in a bounded min-heap, with equal deficits taking turns
+ * through a round-robin cursor over animal ids. {@link #assign(int[])} then gives the selected animals, hungriest
+ * first, to the trough with the most feed energy left so overlapping troughs drain evenly.
+ *
+ * @param <T> the animal handle carried through the allocation
+ */
+public final class FeedAllocator<T> {
+
+    private final int sourceCount;
+    private final int perSourceLimit;
+    private final int capacity;
+    private final int cursor;
+    private final Comparator<Candidate<T>> order;
+    private final PriorityQueue<Candidate<T>> selected;
+    private final Set<Integer> seen = new HashSet<>();
+    private boolean unmetDemand;
+    private Candidate<T> lastFed;
+
+    public FeedAllocator(int sourceCount, int perSourceLimit, int cursor) {
+        this.sourceCount = sourceCount;
+        this.perSourceLimit = perSourceLimit;
+        this.capacity = Math.max(1, sourceCount * perSourceLimit);
+        this.cursor = cursor;
+        Comparator<Candidate<T>> byTurn = Comparator.comparingInt(candidate -> candidate.turn(cursor));
+        this.order = Comparator.<Candidate<T>>comparingInt(Candidate::deficit).thenComparing(byTurn.reversed());
+        this.selected = new PriorityQueue<>(capacity, order);
+    }
+
+    /**
+     * Offers an animal. Repeated offers of the same id are ignored, so groups may list shared animals freely.
+     */
+    public void offer(T animal, int id, int deficit, boolean demanding) {
+        if (deficit <= 0 || perSourceLimit <= 0 || !seen.add(id)) {
+            return;
+        }
+        Candidate<T> candidate = new Candidate<>(animal, id, deficit, demanding);
+        if (selected.size() < capacity) {
+            selected.add(candidate);
+            return;
+        }
+        Candidate<T> rejected = candidate;
+        if (order.compare(candidate, selected.peek()) > 0) {
+            rejected = selected.poll();
+            selected.add(candidate);
+        }
+        unmetDemand |= rejected.demanding();
+    }
+
+    /**
+     * Whether a demanding animal was left out because every trough already had its share of animals.
+     */
+    public boolean hasUnmetDemand() {
+        return unmetDemand;
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty();
+    }
+
+    /**
+     * Assigns the selected animals to sources with the given feed energy. Each returned list is ordered hungriest
+     * first; a trough should serve its animals in that order until its feed runs out.
+     */
+    public List<List<Candidate<T>>> assign(int[] supply) {
+        int[] remaining = supply.clone();
+        List<List<Candidate<T>>> assigned = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            assigned.add(new ArrayList<>());
+        }
+        List<Candidate<T>> queue = new ArrayList<>(selected);
+        queue.sort(order.reversed());
+        for (Candidate<T> candidate : queue) {
+            int best = -1;
+            for (int i = 0; i < sourceCount; i++) {
+                if (remaining[i] <= 0 || assigned.get(i).size() >= perSourceLimit) {
+                    continue;
+                }
+                if (best < 0 || remaining[i] > remaining[best]) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            assigned.get(best).add(candidate);
+            remaining[best] -= candidate.deficit();
+        }
+        return assigned;
+    }
+
+    /**
+     * Records that an animal received food, so the round-robin cursor can move past it.
+     */
+    public void markFed(Candidate<T> candidate) {
+        if (lastFed == null || order.compare(candidate, lastFed) < 0) {
+            lastFed = candidate;
+        }
+    }
+
+    /**
+     * Cursor for the next cycle: just after the lowest-priority animal that was fed, or unchanged if nobody ate.
+     */
+    public int nextCursor() {
+        return lastFed != null ? lastFed.id() + 1 : cursor;
+    }
+
+    public static int requestedEnergy(List<? extends Candidate<?>> candidates) {
+        int total = 0;
+        for (Candidate<?> candidate : candidates) {
+            total += candidate.deficit();
+        }
+        return total;
+    }
+
+    public record Candidate<T>(T animal, int id, int deficit, boolean demanding) {
+
+        /**
+         * Position of the animal on the id ring starting at the cursor; lower turns are served first.
+         */
+        int turn(int cursor) {
+            return id - cursor - Integer.MIN_VALUE;
+        }
+    }
+}
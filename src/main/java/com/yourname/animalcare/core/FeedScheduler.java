@@ -0,0 +1,258 @@
+package com.yourname.animalcare.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * When troughs feed and how one feeding group shares its animals, free of any server types. Troughs sleep until
+ * {@link #wake woken} by demand and then run on their own phase tick of the feed interval; troughs with the same
+ * phase anchor (those of one pen) fall due together. {@link #feedGroup} runs the allocation rounds of one group. The
+ * trough manager and the headless farm simulation both drive troughs through this class. Not thread-safe.
+ *
+ * @param <T> the trough type carrying the scheduling state
+ */
+public final class FeedScheduler<T extends FeedScheduler.Trough> {
+
+    private final ToLongFunction<T> phaseAnchor;
+    private TimingWheel<T> wheel;
+    private long interval;
+    private long currentTick;
+
+    /**
+     * @param phaseAnchor key the feed phase of a trough is derived from; troughs sharing it share their phase
+     */
+    public FeedScheduler(long intervalTicks, ToLongFunction<T> phaseAnchor) {
+        this.phaseAnchor = phaseAnchor;
+        this.interval = Math.max(1L, intervalTicks);
+        this.wheel = newWheel(interval);
+    }
+
+    private static <T> TimingWheel<T> newWheel(long interval) {
+        return new TimingWheel<>((int) Math.min(4096L, interval));
+    }
+
+    /**
+     * Switches to a new feed interval and moves every scheduled trough of {@code troughs} onto its new phase.
+     */
+    public void setInterval(long intervalTicks, Iterable<T> troughs) {
+        long next = Math.max(1L, intervalTicks);
+        if (next == interval) {
+            return;
+        }
+        TimingWheel<T> previous = wheel;
+        interval = next;
+        wheel = newWheel(interval);
+        for (T trough : troughs) {
+            if (previous.getDeadline(trough) != null) {
+                wheel.schedule(trough, nextPhaseTick(trough));
+            }
+        }
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Moves to the next tick and returns the troughs due on it.
+     */
+    public List<T> advance() {
+        currentTick++;
+        return wheel.advance(currentTick);
+    }
+
+    /**
+     * Marks the trough as asked for and schedules it for its next phase tick, unless it is already due earlier.
+     */
+    public void wake(T trough) {
+        trough.demanded = true;
+        long next = nextPhaseTick(trough);
+        Long deadline = wheel.getDeadline(trough);
+        if (deadline == null || deadline > next) {
+            wheel.schedule(trough, next);
+        }
+    }
+
+    /**
+     * Keeps a trough whose group left hungry animals waiting demanded on its next phase tick. Using the phase tick
+     * keeps troughs of one pen due together even if they were first woken apart.
+     */
+    public void retry(T trough) {
+        trough.demanded = true;
+        wheel.schedule(trough, nextPhaseTick(trough));
+    }
+
+    /**
+     * Checks the trough again one interval from now without touching its demand, e.g. while its chunk is unloaded.
+     */
+    public void postpone(T trough) {
+        wheel.schedule(trough, currentTick + interval);
+    }
+
+    /**
+     * Returns whether the trough was asked for since it last fed, clearing the flag.
+     */
+    public boolean takeDemand(T trough) {
+        boolean demanded = trough.demanded;
+        trough.demanded = false;
+        return demanded;
+    }
+
+    /**
+     * Unschedules a trough and forgets its demand and feeding turn, for troughs that ran empty or disappeared.
+     */
+    public void retire(T trough) {
+        trough.demanded = false;
+        trough.feedCursor = 0;
+        wheel.cancel(trough);
+    }
+
+    public void cancel(T trough) {
+        wheel.cancel(trough);
+    }
+
+    public Long getDeadline(T trough) {
+        return wheel.getDeadline(trough);
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+
+    public void clear() {
+        wheel.clear();
+    }
+
+    /**
+     * First tick after now that falls on the trough's own phase. Spreading troughs over the interval by position
+     * keeps every tick's share of the feeding work roughly equal.
+     */
+    public long nextPhaseTick(T trough) {
+        long anchor = phaseAnchor.applyAsLong(trough);
+        long phase = Math.floorMod(Long.hashCode(anchor * 0x9E3779B97F4A7C15L), interval);
+        long candidate = currentTick - Math.floorMod(currentTick, interval) + phase;
+        return candidate > currentTick ? candidate : candidate + interval;
+    }
+
+    /**
+     * Feeds one group of troughs that share their animals, once per pass; troughs with missed cycles to catch up
+     * take part in the extra passes while they still hold feed. In every pass the group's hungry animals are offered
+     * to a {@link FeedAllocator}, which picks the hungriest and spreads them over the troughs by remaining feed
+     * energy, and every trough then consumes the summed deficit of its animals in one request. Returns whether
+     * hungry animals were left waiting after the last pass because of {@code maxFeedsPerCycle}.
+     */
+    public <S extends Source<T>, A> boolean feedGroup(List<S> group, int maxFeedsPerCycle, Herd<S, A> herd) {
+        if (maxFeedsPerCycle <= 0 || group.isEmpty()) {
+            return false;
+        }
+        int passes = 0;
+        for (S source : group) {
+            passes = Math.max(passes, source.passes());
+        }
+        boolean unmetDemand = false;
+        for (int pass = 0; pass < passes; pass++) {
+            List<S> participants = new ArrayList<>(group.size());
+            for (S source : group) {
+                if (source.passes() > pass && source.hasFeed()) {
+                    participants.add(source);
+                }
+            }
+            if (participants.isEmpty()) {
+                break;
+            }
+            unmetDemand = allocate(participants, maxFeedsPerCycle, herd);
+        }
+        return unmetDemand;
+    }
+
+    private <S extends Source<T>, A> boolean allocate(List<S> sources, int maxFeedsPerCycle, Herd<S, A> herd) {
+        FeedAllocator<A> allocator = new FeedAllocator<>(sources.size(), maxFeedsPerCycle,
+            sources.get(0).trough().feedCursor);
+        herd.offer(sources, allocator);
+        if (allocator.isEmpty()) {
+            return allocator.hasUnmetDemand();
+        }
+        int[] supply = new int[sources.size()];
+        for (int i = 0; i < supply.length; i++) {
+            supply[i] = sources.get(i).availableEnergy();
+        }
+        List<List<FeedAllocator.Candidate<A>>> assigned = allocator.assign(supply);
+        for (int i = 0; i < supply.length; i++) {
+            List<FeedAllocator.Candidate<A>> animals = assigned.get(i);
+            if (animals.isEmpty()) {
+                continue;
+            }
+            int provided = sources.get(i).consume(FeedAllocator.requestedEnergy(animals));
+            for (FeedAllocator.Candidate<A> candidate : animals) {
+                if (provided <= 0) {
+                    break;
+                }
+                int share = Math.min(provided, candidate.deficit());
+                herd.feed(candidate.animal(), share);
+                provided -= share;
+                allocator.markFed(candidate);
+            }
+        }
+        int nextCursor = allocator.nextCursor();
+        for (S source : sources) {
+            source.trough().feedCursor = nextCursor;
+        }
+        return allocator.hasUnmetDemand();
+    }
+
+    /**
+     * Scheduling state kept on every trough: whether an animal asked for it since it last fed, and the round-robin
+     * cursor its group continues from.
+     */
+    public abstract static class Trough {
+        boolean demanded;
+        int feedCursor;
+
+        public boolean isDemanded() {
+            return demanded;
+        }
+    }
+
+    /**
+     * A stocked trough taking part in one feeding cycle.
+     */
+    public interface Source<T extends Trough> {
+        T trough();
+
+        /**
+         * Allocation passes the trough takes part in: one, plus the missed cycles it catches up on.
+         */
+        int passes();
+
+        boolean hasFeed();
+
+        int availableEnergy();
+
+        /**
+         * Takes feed worth at most {@code requiredEnergy} and returns the energy actually taken.
+         */
+        int consume(int requiredEnergy);
+    }
+
+    /**
+     * The animals a feeding group may reach.
+     *
+     * @param <S> the trough source type of the group
+     * @param <A> the animal handle
+     */
+    public interface Herd<S, A> {
+
+        /**
+         * Offers every animal the given troughs may feed; animals reachable from several troughs may be offered
+         * repeatedly.
+         */
+        void offer(List<S> sources, FeedAllocator<A> allocator);
+
+        void feed(A animal, int energy);
+    }
+}
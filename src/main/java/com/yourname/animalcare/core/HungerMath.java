@@ -0,0 +1,31 @@
+package com.yourname.animalcare.core;
+
+/**
+ * Hunger arithmetic shared by the hunger tick, manual feeding and troughs. Values always stay within
+ * {@code 0..maxHunger}.
+ */
+public final class HungerMath {
+
+    private HungerMath() {
+    }
+
+    public static int clamp(int hunger, int maxHunger) {
+        return Math.max(0, Math.min(maxHunger, hunger));
+    }
+
+    public static int add(int hunger, int amount, int maxHunger) {
+        return clamp(hunger + amount, maxHunger);
+    }
+
+    /**
+     * Change applied by one hunger tick. Captive animals always lose hunger, pasture animals apply the configured
+     * change as is.
+     */
+    public static int tickDelta(boolean pasture, int captiveLoss, int pastureChange) {
+        return pasture ? pastureChange : -Math.abs(captiveLoss);
+    }
+
+    public static int deficit(int hunger, int maxHunger) {
+        return Math.max(0, maxHunger - clamp(hunger, maxHunger));
+    }
+}
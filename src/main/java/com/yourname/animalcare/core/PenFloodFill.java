@@ -0,0 +1,393 @@
+package com.yourname.animalcare.core;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Breadth-first search over walkable cells that decides whether an animal can leave its surroundings. The search
+ * only sees the world through {@link Walkability}, so it runs against live blocks and synthetic voxel grids alike.
+ * <p>
+ * A fill can be capped at a number of visited cells and run in time slices through {@link Search}, which keeps its
+ * queue and visited set between slices. An optional escape probe walks straight lines out of the start cell first;
+ * any line that crosses the limit is a path the full search would also find, so open terrain is answered without
+ * filling it.
+ */
+public final class PenFloodFill {
+
+    /**
+     * Answers whether an animal can stand with its feet in the given cell.
+     */
+    @FunctionalInterface
+    public interface Walkability {
+        boolean isWalkable(int x, int y, int z);
+    }
+
+    private static final int CLOCK_CHECK_MASK = 63;
+
+    private final int horizontalLimit;
+    private final int verticalLimit;
+    private final int maxNodes;
+    private final boolean escapeProbe;
+
+    public PenFloodFill(int horizontalLimit, int verticalLimit) {
+        this(horizontalLimit, verticalLimit, 0, false);
+    }
+
+    /**
+     * @param maxNodes    cells a fill may visit before it gives up with an inconclusive result; {@code 0} for no cap
+     * @param escapeProbe whether to probe straight escape lines before filling
+     */
+    public PenFloodFill(int horizontalLimit, int verticalLimit, int maxNodes, boolean escapeProbe) {
+        this.horizontalLimit = Math.max(1, horizontalLimit);
+        this.verticalLimit = Math.max(1, verticalLimit);
+        this.maxNodes = Math.max(0, maxNodes);
+        this.escapeProbe = escapeProbe;
+    }
+
+    public int getHorizontalLimit() {
+        return horizontalLimit;
+    }
+
+    public int getVerticalLimit() {
+        return verticalLimit;
+    }
+
+    /**
+     * Looks for a walkable cell close to the entity's feet, first downwards then upwards, and falls back to the
+     * initial height.
+     */
+    public int findStartingY(Walkability walkability, int x, int initialY, int z) {
+        int y = initialY;
+        for (int i = 0; i < 3; i++) {
+            if (walkability.isWalkable(x, y, z)) {
+                return y;
+            }
+            y--;
+        }
+        y = initialY + 1;
+        for (int i = 0; i < 2; i++) {
+            if (walkability.isWalkable(x, y, z)) {
+                return y;
+            }
+            y++;
+        }
+        return initialY;
+    }
+
+    /**
+     * Fills the walkable area around the start cell. The fill escapes as soon as it reaches a cell further than the
+     * horizontal limit from the start and is inconclusive if it hits the node cap first; otherwise it returns the
+     * bounds of every visited cell.
+     */
+    public Result fill(Walkability walkability, int baseX, int baseY, int baseZ) {
+        Search search = start(walkability, baseX, baseY, baseZ);
+        search.advance(Long.MAX_VALUE);
+        return search.getResult();
+    }
+
+    /**
+     * Prepares a fill that is driven by {@link Search#advance(long)}. Nothing is read from the world until then.
+     */
+    public Search start(Walkability walkability, int baseX, int baseY, int baseZ) {
+        return new Search(walkability, baseX, baseY, baseZ);
+    }
+
+    /**
+     * A fill in progress. Not thread-safe; the caller hands it from slice to slice.
+     */
+    public final class Search {
+        private final Walkability walkability;
+        private final int baseX;
+        private final int baseY;
+        private final int baseZ;
+        private final Set<BlockPos> visited = new HashSet<>();
+        private final ArrayDeque<BlockPos> queue = new ArrayDeque<>();
+        private int minX;
+        private int maxX;
+        private int minY;
+        private int maxY;
+        private int minZ;
+        private int maxZ;
+        private int probedNodes;
+        private int slices;
+        private boolean started;
+        private Result result;
+
+        private Search(Walkability walkability, int baseX, int baseY, int baseZ) {
+            this.walkability = walkability;
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.baseZ = baseZ;
+            this.minX = baseX;
+            this.maxX = baseX;
+            this.minY = baseY;
+            this.maxY = baseY;
+            this.minZ = baseZ;
+            this.maxZ = baseZ;
+        }
+
+        /**
+         * Follows each direction from the start cell, taking the first walkable step the fill would also take, and
+         * reports whether one of these lines crosses the horizontal limit.
+         */
+        private boolean probeEscape() {
+            for (Direction direction : Direction.values()) {
+                int x = baseX;
+                int y = baseY;
+                int z = baseZ;
+                for (int step = 1; step <= horizontalLimit + 1; step++) {
+                    int nextX = x + direction.xOffset;
+                    int nextZ = z + direction.zOffset;
+                    boolean moved = false;
+                    for (int deltaY : direction.yCandidates) {
+                        int nextY = y + deltaY;
+                        if (Math.abs(nextY - baseY) > verticalLimit) {
+                            continue;
+                        }
+                        probedNodes++;
+                        if (walkability.isWalkable(nextX, nextY, nextZ)) {
+                            x = nextX;
+                            y = nextY;
+                            z = nextZ;
+                            moved = true;
+                            break;
+                        }
+                    }
+                    if (!moved) {
+                        break;
+                    }
+                    if (step > horizontalLimit) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Continues the fill for at most roughly {@code budgetNanos}. Returns whether it finished; if not, the next
+         * call resumes where this one stopped.
+         */
+        public boolean advance(long budgetNanos) {
+            if (result != null) {
+                return true;
+            }
+            slices++;
+            if (!started) {
+                started = true;
+                if (escapeProbe && probeEscape()) {
+                    result = Result.escaped(probedNodes);
+                    return true;
+                }
+                BlockPos start = new BlockPos(baseX, baseY, baseZ);
+                queue.add(start);
+                visited.add(start);
+            }
+            long sliceStart = System.nanoTime();
+            int steps = 0;
+            while (!queue.isEmpty()) {
+                if ((++steps & CLOCK_CHECK_MASK) == 0 && System.nanoTime() - sliceStart >= budgetNanos) {
+                    return false;
+                }
+                BlockPos current = queue.poll();
+
+                if (Math.abs(current.x - baseX) > horizontalLimit || Math.abs(current.z - baseZ) > horizontalLimit) {
+                    return escape();
+                }
+
+                minX = Math.min(minX, current.x);
+                maxX = Math.max(maxX, current.x);
+                minY = Math.min(minY, current.y);
+                maxY = Math.max(maxY, current.y);
+                minZ = Math.min(minZ, current.z);
+                maxZ = Math.max(maxZ, current.z);
+
+                for (Direction direction : Direction.values()) {
+                    int nextX = current.x + direction.xOffset;
+                    int nextZ = current.z + direction.zOffset;
+
+                    for (int deltaY : direction.yCandidates) {
+                        int nextY = current.y + deltaY;
+                        if (Math.abs(nextY - baseY) > verticalLimit) {
+                            continue;
+                        }
+                        if (!walkability.isWalkable(nextX, nextY, nextZ)) {
+                            continue;
+                        }
+
+                        BlockPos next = new BlockPos(nextX, nextY, nextZ);
+                        if (visited.contains(next)) {
+                            continue;
+                        }
+
+                        if (Math.abs(next.x - baseX) > horizontalLimit
+                            || Math.abs(next.z - baseZ) > horizontalLimit) {
+                            return escape();
+                        }
+
+                        visited.add(next);
+                        queue.add(next);
+                        if (maxNodes > 0 && visited.size() >= maxNodes) {
+                            // Neither an escape nor a pen yet; the caller keeps what it knew.
+                            result = Result.inconclusive(probedNodes + visited.size());
+                            queue.clear();
+                            return true;
+                        }
+                    }
+                }
+            }
+            result = Result.enclosed(minX, maxX, minY, maxY, minZ, maxZ, probedNodes + visited.size());
+            return true;
+        }
+
+        private boolean escape() {
+            result = Result.escaped(probedNodes + visited.size());
+            queue.clear();
+            return true;
+        }
+
+        /**
+         * The outcome once {@link #advance(long)} returned {@code true}, otherwise {@code null}.
+         */
+        public Result getResult() {
+            return result;
+        }
+
+        /**
+         * Number of {@link #advance(long)} calls that did work.
+         */
+        public int getSlices() {
+            return slices;
+        }
+    }
+
+    public static final class Result {
+        private final boolean escaped;
+        private final boolean inconclusive;
+        private final int minX;
+        private final int maxX;
+        private final int minY;
+        private final int maxY;
+        private final int minZ;
+        private final int maxZ;
+        private final int visitedNodes;
+
+        private Result(boolean escaped, boolean inconclusive, int minX, int maxX, int minY, int maxY, int minZ,
+                       int maxZ, int visitedNodes) {
+            this.escaped = escaped;
+            this.inconclusive = inconclusive;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+            this.visitedNodes = visitedNodes;
+        }
+
+        public static Result escaped(int visitedNodes) {
+            return new Result(true, false, 0, 0, 0, 0, 0, 0, visitedNodes);
+        }
+
+        /**
+         * A fill that hit the node cap before it either escaped or ran out of cells.
+         */
+        public static Result inconclusive(int visitedNodes) {
+            return new Result(false, true, 0, 0, 0, 0, 0, 0, visitedNodes);
+        }
+
+        public static Result enclosed(int minX, int maxX, int minY, int maxY, int minZ, int maxZ, int visitedNodes) {
+            return new Result(false, false, minX, maxX, minY, maxY, minZ, maxZ, visitedNodes);
+        }
+
+        /**
+         * Number of cells the fill visited before it finished or escaped, including those checked by the escape
+         * probe.
+         */
+        public int getVisitedNodes() {
+            return visitedNodes;
+        }
+
+        public boolean isEscaped() {
+            return escaped;
+        }
+
+        public boolean isInconclusive() {
+            return inconclusive;
+        }
+
+        public int getMinX() {
+            return minX;
+        }
+
+        public int getMaxX() {
+            return maxX;
+        }
+
+        public int getMinY() {
+            return minY;
+        }
+
+        public int getMaxY() {
+            return maxY;
+        }
+
+        public int getMinZ() {
+            return minZ;
+        }
+
+        public int getMaxZ() {
+            return maxZ;
+        }
+    }
+
+    private enum Direction {
+        NORTH(0, -1, new int[]{0, 1, -1}),
+        SOUTH(0, 1, new int[]{0, 1, -1}),
+        EAST(1, 0, new int[]{0, 1, -1}),
+        WEST(-1, 0, new int[]{0, 1, -1});
+
+        private final int xOffset;
+        private final int zOffset;
+        private final int[] yCandidates;
+
+        Direction(int xOffset, int zOffset, int[] yCandidates) {
+            this.xOffset = xOffset;
+            this.zOffset = zOffset;
+            this.yCandidates = yCandidates;
+        }
+    }
+
+    private static class BlockPos {
+        private final int x;
+        private final int y;
+        private final int z;
+
+        private BlockPos(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BlockPos)) {
+                return false;
+            }
+            BlockPos other = (BlockPos) obj;
+            return x == other.x && y == other.y && z == other.z;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = x;
+            result = 31 * result + y;
+            result = 31 * result + z;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.yourname.animalcare.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Single driver for every periodic AnimalCare job. Each job runs on the ticks congruent to its phase offset modulo its
+ * interval; offsets are chosen so that no two periodic jobs ever land on the same tick whenever their intervals share a
+ * common divisor above one, and as far apart as the intervals allow. Jobs with an interval of one tick run every tick
+ * and are left out of that placement. A job scheduled after another one takes the first free phase following its
+ * predecessor, so it always sees the predecessor's fresh results when the intervals are multiples of each other. Jobs
+ * due on the same tick run in registration order.
+ * <p>
+ * Deferrable jobs additionally respect a {@link Budget}: when their last run would not fit into what is left of the
+ * tick's budget they wait for a later tick, but never longer than {@code maxDeferTicks} past their phase. A deferred
+ * job keeps its phase; missed phases are skipped rather than run back to back.
+ */
+public final class PhaseScheduler {
+
+    private final List<Job> jobs = new ArrayList<>();
+    private Job[] runOrder = new Job[0];
+    private final BiConsumer<Job, RuntimeException> errorHandler;
+    private long currentTick;
+    private Budget budget = new Budget() {
+        @Override
+        public long budgetNanos() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public void deferred(Job job) {
+        }
+    };
+    private long maxDeferTicks;
+
+    /**
+     * Time budget for deferrable work on the current tick.
+     */
+    public interface Budget {
+        long budgetNanos();
+
+        void deferred(Job job);
+    }
+
+    /**
+     * @param errorHandler receives exceptions thrown by a job; the remaining jobs of the tick still run
+     */
+    public PhaseScheduler(BiConsumer<Job, RuntimeException> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public void setBudget(Budget budget, long maxDeferTicks) {
+        this.budget = budget;
+        this.maxDeferTicks = Math.max(0L, maxDeferTicks);
+    }
+
+    public Job schedule(String name, long intervalTicks, Runnable action) {
+        return add(name, intervalTicks, action, null, false);
+    }
+
+    /**
+     * Schedules a job that may be postponed while the tick budget is exhausted.
+     */
+    public Job scheduleDeferrable(String name, long intervalTicks, Runnable action) {
+        return add(name, intervalTicks, action, null, true);
+    }
+
+    /**
+     * Schedules a job on the first free phase after {@code predecessor}'s phase.
+     */
+    public Job scheduleAfter(String name, long intervalTicks, Runnable action, Job predecessor) {
+        return add(name, intervalTicks, action, predecessor, false);
+    }
+
+    public void cancel(Job job) {
+        if (job != null && jobs.remove(job)) {
+            job.cancelled = true;
+            runOrder = jobs.toArray(new Job[0]);
+        }
+    }
+
+    /**
+     * Advances one tick and runs every job that is due, timing each run.
+     */
+    public void tick() {
+        currentTick++;
+        long available = budget.budgetNanos();
+        long spent = 0L;
+        for (Job job : runOrder) {
+            if (job.cancelled || job.nextRunTick > currentTick) {
+                continue;
+            }
+            if (job.deferrable && currentTick - job.nextRunTick < maxDeferTicks
+                && job.lastNanos > available - spent) {
+                if (job.nextRunTick == currentTick) {
+                    job.deferrals++;
+                    budget.deferred(job);
+                }
+                continue;
+            }
+            while (job.nextRunTick <= currentTick) {
+                job.nextRunTick += job.intervalTicks;
+            }
+            long started = System.nanoTime();
+            try {
+                job.action.run();
+            } catch (RuntimeException ex) {
+                errorHandler.accept(job, ex);
+            }
+            long elapsed = System.nanoTime() - started;
+            job.record(elapsed);
+            spent += elapsed;
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public List<Job> getJobs() {
+        return Collections.unmodifiableList(jobs);
+    }
+
+    private Job add(String name, long intervalTicks, Runnable action, Job predecessor, boolean deferrable) {
+        long interval = Math.max(1L, intervalTicks);
+        long offset = interval == 1L ? 0L : predecessor != null && !predecessor.cancelled
+            ? phaseAfter(interval, predecessor) : spreadPhase(interval);
+        long firstRun = currentTick + interval;
+        firstRun += Math.floorMod(offset - firstRun, interval);
+        Job job = new Job(name, interval, offset, action, firstRun, deferrable);
+        jobs.add(job);
+        runOrder = jobs.toArray(new Job[0]);
+        return job;
+    }
+
+    private long phaseAfter(long interval, Job predecessor) {
+        for (long gap = 1; gap < interval; gap++) {
+            long offset = Math.floorMod(predecessor.offset + gap, interval);
+            if (distanceToPlaced(interval, offset) > 0) {
+                return offset;
+            }
+        }
+        return spreadPhase(interval);
+    }
+
+    /**
+     * Picks the offset whose nearest periodic neighbour is furthest away, preferring the smallest such offset.
+     */
+    private long spreadPhase(long interval) {
+        long best = 0L;
+        long bestDistance = -1L;
+        for (long offset = 0; offset < interval; offset++) {
+            long distance = distanceToPlaced(interval, offset);
+            if (distance > bestDistance) {
+                best = offset;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Smallest number of ticks between a job with this interval and offset and any placed periodic job. Two phases
+     * meet exactly when their offsets agree modulo the gcd of the intervals, so the distance is taken in that ring.
+     */
+    private long distanceToPlaced(long interval, long offset) {
+        long distance = Long.MAX_VALUE;
+        for (Job placed : jobs) {
+            if (placed.intervalTicks == 1L) {
+                continue;
+            }
+            long ring = gcd(interval, placed.intervalTicks);
+            long apart = Math.floorMod(offset - placed.offset, ring);
+            distance = Math.min(distance, Math.min(apart, ring - apart));
+        }
+        return distance;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long next = a % b;
+            a = b;
+            b = next;
+        }
+        return a;
+    }
+
+    public static final class Job {
+        private final String name;
+        private final long intervalTicks;
+        private final long offset;
+        private final Runnable action;
+        private final boolean deferrable;
+        private long nextRunTick;
+        private long deferrals;
+        private boolean cancelled;
+        private long runs;
+        private long lastNanos;
+        private long maxNanos;
+        private long totalNanos;
+
+        private Job(String name, long intervalTicks, long offset, Runnable action, long nextRunTick,
+                    boolean deferrable) {
+            this.name = name;
+            this.intervalTicks = intervalTicks;
+            this.offset = offset;
+            this.action = action;
+            this.nextRunTick = nextRunTick;
+            this.deferrable = deferrable;
+        }
+
+        private void record(long nanos) {
+            runs++;
+            lastNanos = nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            totalNanos += nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getIntervalTicks() {
+            return intervalTicks;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getNextRunTick() {
+            return nextRunTick;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public boolean isDeferrable() {
+            return deferrable;
+        }
+
+        /**
+         * Number of phases on which the job had to wait for budget.
+         */
+        public long getDeferrals() {
+            return deferrals;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
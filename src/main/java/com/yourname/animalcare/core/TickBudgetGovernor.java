@@ -0,0 +1,160 @@
+package com.yourname.animalcare.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns recent server tick durations into a per-tick time budget for deferrable AnimalCare work. While the smoothed
+ * tick time stays below {@code softMspt} the budget is unlimited; between the soft and hard limits it shrinks
+ * linearly from {@code maxBudget} to {@code minBudget}, and above the hard limit it stays at the minimum. Throttling
+ * ends with some hysteresis once the average drops clearly below the soft limit again.
+ * <p>
+ * Tick durations and deferred jobs are fed from the thread driving the {@link PhaseScheduler} only, so the moving
+ * average has a single writer. Catch-up deferrals come from Folia region threads as well; all counters are therefore
+ * {@link LongAdder}s and may be read from any thread.
+ */
+public final class TickBudgetGovernor implements PhaseScheduler.Budget {
+
+    /**
+     * Weight of the newest tick in the moving average, roughly a one-second memory at 20 TPS.
+     */
+    private static final double SMOOTHING = 0.05D;
+    private static final double RELEASE_FACTOR = 0.9D;
+
+    public enum Transition {
+        NONE,
+        STARTED,
+        ENDED
+    }
+
+    private volatile boolean enabled;
+    private volatile double softMspt;
+    private volatile double hardMspt;
+    private volatile long maxBudgetNanos;
+    private volatile long minBudgetNanos;
+
+    private volatile double averageMspt;
+    private volatile boolean throttling;
+    private final LongAdder throttledTicks = new LongAdder();
+    private final LongAdder episodes = new LongAdder();
+    private final LongAdder deferredRuns = new LongAdder();
+    private final LongAdder deferredCatchUps = new LongAdder();
+    private final LongAdder episodeTicks = new LongAdder();
+    private final LongAdder episodeDeferredRuns = new LongAdder();
+    private final LongAdder episodeDeferredCatchUps = new LongAdder();
+
+    public TickBudgetGovernor(boolean enabled, double softMspt, double hardMspt, double maxBudgetMillis,
+                              double minBudgetMillis) {
+        configure(enabled, softMspt, hardMspt, maxBudgetMillis, minBudgetMillis);
+    }
+
+    /**
+     * Replaces the limits while keeping the moving average and the counters. Disabling ends a running episode.
+     */
+    public void configure(boolean enabled, double softMspt, double hardMspt, double maxBudgetMillis,
+                          double minBudgetMillis) {
+        this.softMspt = Math.max(1.0D, softMspt);
+        this.hardMspt = Math.max(this.softMspt, hardMspt);
+        this.maxBudgetNanos = (long) (Math.max(0.0D, maxBudgetMillis) * 1_000_000.0D);
+        this.minBudgetNanos = Math.min(maxBudgetNanos, (long) (Math.max(0.0D, minBudgetMillis) * 1_000_000.0D));
+        this.enabled = enabled;
+        if (!enabled) {
+            throttling = false;
+        }
+    }
+
+    /**
+     * Feeds the duration of the last server tick in milliseconds and reports whether throttling started or ended.
+     * Called from the scheduler thread only.
+     */
+    public Transition recordTick(double mspt) {
+        if (!enabled || Double.isNaN(mspt)) {
+            return Transition.NONE;
+        }
+        averageMspt += (Math.max(0.0D, mspt) - averageMspt) * SMOOTHING;
+        if (throttling) {
+            throttledTicks.increment();
+            episodeTicks.increment();
+            if (averageMspt < softMspt * RELEASE_FACTOR) {
+                throttling = false;
+                return Transition.ENDED;
+            }
+        } else if (averageMspt >= softMspt) {
+            throttling = true;
+            episodes.increment();
+            episodeTicks.reset();
+            episodeDeferredRuns.reset();
+            episodeDeferredCatchUps.reset();
+            return Transition.STARTED;
+        }
+        return Transition.NONE;
+    }
+
+    @Override
+    public long budgetNanos() {
+        if (!throttling) {
+            return Long.MAX_VALUE;
+        }
+        if (averageMspt >= hardMspt || hardMspt <= softMspt) {
+            return minBudgetNanos;
+        }
+        double load = (averageMspt - softMspt) / (hardMspt - softMspt);
+        return maxBudgetNanos - (long) ((maxBudgetNanos - minBudgetNanos) * load);
+    }
+
+    @Override
+    public void deferred(PhaseScheduler.Job job) {
+        deferredRuns.increment();
+        episodeDeferredRuns.increment();
+    }
+
+    /**
+     * Records that a trough skipped its missed cycles for now; they stay pending for a later cycle.
+     */
+    public void deferredCatchUp() {
+        deferredCatchUps.increment();
+        episodeDeferredCatchUps.increment();
+    }
+
+    public boolean isThrottling() {
+        return throttling;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getAverageMspt() {
+        return averageMspt;
+    }
+
+    public long getThrottledTicks() {
+        return throttledTicks.sum();
+    }
+
+    public long getEpisodes() {
+        return episodes.sum();
+    }
+
+    public long getDeferredRuns() {
+        return deferredRuns.sum();
+    }
+
+    public long getDeferredCatchUps() {
+        return deferredCatchUps.sum();
+    }
+
+    /**
+     * Ticks spent throttling in the current or last episode.
+     */
+    public long getEpisodeTicks() {
+        return episodeTicks.sum();
+    }
+
+    public long getEpisodeDeferredRuns() {
+        return episodeDeferredRuns.sum();
+    }
+
+    public long getEpisodeDeferredCatchUps() {
+        return episodeDeferredCatchUps.sum();
+    }
+}
@@ -0,0 +1,88 @@
+package com.yourname.animalcare.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel keyed by server tick. Every key owns at most one deadline; scheduling a key again moves it.
+ * Deadlines further away than one rotation simply stay in their slot until the wheel comes around to them.
+ */
+public final class TimingWheel<K> {
+
+    private final List<Set<K>> slots;
+    private final int mask;
+    private final Map<K, Long> deadlines = new HashMap<>();
+
+    public TimingWheel(int minimumSlots) {
+        int size = Integer.highestOneBit(Math.max(1, minimumSlots - 1)) << 1;
+        this.mask = size - 1;
+        List<Set<K>> created = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            created.add(new HashSet<>());
+        }
+        this.slots = Collections.unmodifiableList(created);
+    }
+
+    public void schedule(K key, long deadlineTick) {
+        cancel(key);
+        deadlines.put(key, deadlineTick);
+        slots.get(slotIndex(deadlineTick)).add(key);
+    }
+
+    public boolean cancel(K key) {
+        Long previous = deadlines.remove(key);
+        if (previous == null) {
+            return false;
+        }
+        slots.get(slotIndex(previous)).remove(key);
+        return true;
+    }
+
+    public Long getDeadline(K key) {
+        return deadlines.get(key);
+    }
+
+    /**
+     * Removes and returns every key whose deadline is at or before {@code tick}. The wheel must be advanced one
+     * tick at a time so no slot is skipped.
+     */
+    public List<K> advance(long tick) {
+        Set<K> slot = slots.get(slotIndex(tick));
+        if (slot.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<K> due = new ArrayList<>();
+        Iterator<K> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            K key = iterator.next();
+            Long deadline = deadlines.get(key);
+            if (deadline == null || deadline <= tick) {
+                iterator.remove();
+                deadlines.remove(key);
+                due.add(key);
+            }
+        }
+        return due;
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    public void clear() {
+        deadlines.clear();
+        for (Set<K> slot : slots) {
+            slot.clear();
+        }
+    }
+
+    private int slotIndex(long tick) {
+        return (int) (tick & mask);
+    }
+}
@@ -0,0 +1,47 @@
+package com.yourname.animalcare.listener;
+
+import com.yourname.animalcare.manager.AnimalTracker;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+
+/**
+ * Keeps the {@link AnimalTracker} in sync with the loaded animals. Only registered on Folia.
+ */
+public class AnimalTrackingListener implements Listener {
+
+    private final AnimalTracker tracker;
+
+    public AnimalTrackingListener(AnimalTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            tracker.track(entity);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            tracker.untrack(entity);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCreatureSpawn(CreatureSpawnEvent event) {
+        tracker.track(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        tracker.untrack(event.getEntity());
+    }
+}
@@ -1,12 +1,14 @@
 package com.yourname.animalcare.listener;
 
+import com.yourname.animalcare.config.AnimalCareSettings;
 import com.yourname.animalcare.manager.HungerManager;
 import com.yourname.animalcare.manager.PenDetectionService;
+import com.yourname.animalcare.util.ServerPlatform;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Animals;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -15,33 +17,29 @@ import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class FeedListener implements Listener {
 
-    private final FileConfiguration config;
+    private final Supplier<AnimalCareSettings> settings;
     private final HungerManager hungerManager;
     private final PenDetectionService penDetectionService;
-    private final Set<String> allowedItems;
-    private final Map<Material, Integer> feedEnergy;
+    private final PlayerMessenger messenger;
+    private final ServerPlatform platform;
+    private final Map<EntityType, String> readableNames = new ConcurrentHashMap<>();
+    private final Set<UUID> awaitingPen = ConcurrentHashMap.newKeySet();
 
-    public FeedListener(FileConfiguration config, HungerManager hungerManager, PenDetectionService penDetectionService,
-                       Map<Material, Integer> feedEnergy) {
-        this.config = config;
+    public FeedListener(Supplier<AnimalCareSettings> settings, HungerManager hungerManager,
+                        PenDetectionService penDetectionService, PlayerMessenger messenger, ServerPlatform platform) {
+        this.settings = settings;
         this.hungerManager = hungerManager;
         this.penDetectionService = penDetectionService;
-        this.feedEnergy = Collections.unmodifiableMap(new HashMap<>(feedEnergy));
-        this.allowedItems = new HashSet<>(config.getStringList("feeding.hand-feed-items").stream()
-            .map(String::toUpperCase)
-            .collect(Collectors.toSet()));
-        if (this.allowedItems.isEmpty()) {
-            this.allowedItems.addAll(config.getStringList("trough.feed-items").stream().map(String::toUpperCase).collect(Collectors.toSet()));
-        }
+        this.messenger = messenger;
+        this.platform = platform;
     }
 
     @EventHandler
@@ -58,40 +56,66 @@ public class FeedListener implements Listener {
         event.setCancelled(true);
         Player player = event.getPlayer();
         EquipmentSlot hand = event.getHand();
-        ItemStack item = player.getInventory().getItem(hand);
-        if (item == null) {
-            sendMessage(player, "messages.wrong-item", "%entity%", readableName(living));
+        if (feedEnergy(player, player.getInventory().getItem(hand), living) == null) {
             return;
         }
-        Material material = item.getType();
-        if (!allowedItems.contains(material.name())) {
-            sendMessage(player, "messages.wrong-item", "%entity%", readableName(living));
+        PenDetectionService.PenInfo penInfo = penDetectionService.lookupPenInfo(living);
+        if (penInfo != null) {
+            feed(player, hand, living, penInfo.getStatus());
             return;
         }
-        Integer energy = feedEnergy.get(material);
-        if (energy == null || energy <= 0) {
-            sendMessage(player, "messages.wrong-item", "%entity%", readableName(living));
+        // Pen not known yet: the flood fill runs in the background and the feeding completes once it is done.
+        if (!awaitingPen.add(living.getUniqueId())) {
+            return;
+        }
+        penDetectionService.requestPenInfo(living, detected -> {
+            awaitingPen.remove(living.getUniqueId());
+            if (detected != null && player.isOnline() && player.getWorld().equals(living.getWorld())
+                && platform.owns(player)) {
+                feed(player, hand, living, detected.getStatus());
+            }
+        });
+    }
+
+    private void feed(Player player, EquipmentSlot hand, LivingEntity living, PenDetectionService.PenStatus status) {
+        ItemStack item = player.getInventory().getItem(hand);
+        Integer energy = feedEnergy(player, item, living);
+        if (energy == null) {
             return;
         }
-        PenDetectionService.PenStatus status = penDetectionService.getPenStatus(living);
         if (status == PenDetectionService.PenStatus.WILD) {
-            sendMessage(player, "messages.not-in-pen", "%entity%", readableName(living));
+            messenger.send(player, "not-in-pen", "%entity%", readableName(living));
             return;
         }
         if (hungerManager.getHunger(living) >= hungerManager.getMaxHunger()) {
-            sendMessage(player, "messages.not-hungry", "%entity%", readableName(living));
+            messenger.send(player, "not-hungry", "%entity%", readableName(living));
             return;
         }
         int hungerBefore = hungerManager.getHunger(living);
         int hunger = hungerManager.addHunger(living, energy);
         decrementItem(player, hand, item);
-        sendMessage(player, "messages.feed-success", "%entity%", readableName(living));
+        messenger.send(player, "feed-success", "%entity%", readableName(living));
         if (hungerBefore < hungerManager.getMaxHunger() && hunger >= hungerManager.getMaxHunger() && living instanceof Animals animals) {
             animals.setLoveModeTicks(600);
             animals.setBreedCause(player.getUniqueId());
         }
     }
 
+    /**
+     * Energy of the held item, or {@code null} after telling the player it cannot be fed.
+     */
+    private Integer feedEnergy(Player player, ItemStack item, LivingEntity living) {
+        AnimalCareSettings.FeedingSettings feeding = settings.get().feeding();
+        Material material = item != null ? item.getType() : null;
+        Integer energy = material != null && feeding.handFeedItems().contains(material)
+            ? feeding.itemEnergy().get(material) : null;
+        if (energy == null || energy <= 0) {
+            messenger.send(player, "wrong-item", "%entity%", readableName(living));
+            return null;
+        }
+        return energy;
+    }
+
     private void decrementItem(Player player, EquipmentSlot hand, ItemStack stack) {
         if (player.getGameMode() == GameMode.CREATIVE) {
             return;
@@ -104,14 +128,8 @@ public class FeedListener implements Listener {
         }
     }
 
-    private void sendMessage(Player player, String path, String placeholder, String replacement) {
-        String message = config.getString(path);
-        if (message != null && !message.isEmpty()) {
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message.replace(placeholder, replacement)));
-        }
-    }
-
     private String readableName(LivingEntity entity) {
-        return ChatColor.stripColor(entity.getType().name().toLowerCase().replace('_', ' '));
+        return readableNames.computeIfAbsent(entity.getType(),
+            type -> ChatColor.stripColor(type.name().toLowerCase().replace('_', ' ')));
     }
 }
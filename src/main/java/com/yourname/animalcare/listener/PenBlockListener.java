@@ -0,0 +1,56 @@
+package com.yourname.animalcare.listener;
+
+import com.yourname.animalcare.manager.PenDetectionService;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.List;
+
+/**
+ * Keeps the pen detection block cache in step with blocks players build, break or blow up while a scan cycle is
+ * running. Other changes, such as flowing water or pistons, are picked up by the next cycle.
+ */
+public class PenBlockListener implements Listener {
+
+    private final PenDetectionService penDetectionService;
+
+    public PenBlockListener(PenDetectionService penDetectionService) {
+        this.penDetectionService = penDetectionService;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidate(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidate(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidate(event.blockList());
+    }
+
+    private void invalidate(List<Block> blocks) {
+        for (Block block : blocks) {
+            invalidate(block);
+        }
+    }
+
+    private void invalidate(Block block) {
+        penDetectionService.invalidateBlock(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+}
@@ -0,0 +1,94 @@
+package com.yourname.animalcare.listener;
+
+import com.yourname.animalcare.config.AnimalCareSettings;
+import com.yourname.animalcare.config.MessageTemplate;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Sends the configured player messages. A player spamming right-click on a full trough or a sated animal gets the
+ * message in chat once; identical repeats within the coalescing window are dropped from chat and, if enabled, shown
+ * as a counter in the action bar, which itself is refreshed at most every {@link #ACTION_BAR_INTERVAL_MILLIS}.
+ * Every repeat extends the window, so chat only sees the message again after the player paused.
+ */
+public class PlayerMessenger implements Listener {
+
+    static final long ACTION_BAR_INTERVAL_MILLIS = 250L;
+
+    private final Supplier<AnimalCareSettings> settings;
+    private final Map<UUID, Recent> recent = new ConcurrentHashMap<>();
+
+    /**
+     * Last chat message of a player. Only touched from the thread handling that player's interactions.
+     */
+    private static final class Recent {
+        private final String text;
+        private long lastAt;
+        private long actionBarAt;
+        private int repeats;
+
+        private Recent(String text, long now) {
+            this.text = text;
+            this.lastAt = now;
+        }
+    }
+
+    public PlayerMessenger(Supplier<AnimalCareSettings> settings) {
+        this.settings = settings;
+    }
+
+    public void send(Player player, String key) {
+        AnimalCareSettings.Messages messages = settings.get().messages();
+        MessageTemplate template = messages.get(key);
+        if (template != null) {
+            deliver(player, template.render(), messages);
+        }
+    }
+
+    public void send(Player player, String key, String placeholder, String value) {
+        AnimalCareSettings.Messages messages = settings.get().messages();
+        MessageTemplate template = messages.get(key);
+        if (template != null) {
+            deliver(player, template.render(placeholder, value), messages);
+        }
+    }
+
+    private void deliver(Player player, String text, AnimalCareSettings.Messages messages) {
+        long window = messages.coalesceMillis();
+        if (window <= 0L) {
+            player.sendMessage(text);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        UUID id = player.getUniqueId();
+        Recent last = recent.get(id);
+        if (last != null && now - last.lastAt < window && last.text.equals(text)) {
+            last.lastAt = now;
+            last.repeats++;
+            if (messages.actionBar() && now - last.actionBarAt >= ACTION_BAR_INTERVAL_MILLIS) {
+                last.actionBarAt = now;
+                player.spigot().sendMessage(ChatMessageType.ACTION_BAR,
+                    TextComponent.fromLegacyText(text + ChatColor.GRAY + " x" + (last.repeats + 1)));
+            }
+            return;
+        }
+        player.sendMessage(text);
+        recent.put(id, new Recent(text, now));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        recent.remove(event.getPlayer().getUniqueId());
+    }
+}
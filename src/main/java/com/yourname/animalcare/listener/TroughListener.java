@@ -1,41 +1,51 @@
 package com.yourname.animalcare.listener;
 
+import com.yourname.animalcare.config.AnimalCareSettings;
 import com.yourname.animalcare.manager.HungerManager;
 import com.yourname.animalcare.manager.PenDetectionService;
 import com.yourname.animalcare.manager.TroughManager;
 import org.bukkit.ChatColor;
 import org.bukkit.block.Block;
-import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
 import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.List;
 import java.util.Locale;
+import java.util.function.Supplier;
 
 public class TroughListener implements Listener {
 
-    private final FileConfiguration config;
+    private final Supplier<AnimalCareSettings> settings;
     private final TroughManager troughManager;
     private final HungerManager hungerManager;
     private final PenDetectionService penDetectionService;
-    private final boolean debugEnabled;
-    private final Material debugTool;
+    private final PlayerMessenger messenger;
 
-    public TroughListener(FileConfiguration config, TroughManager troughManager, HungerManager hungerManager,
-                          PenDetectionService penDetectionService, boolean debugEnabled, Material debugTool) {
-        this.config = config;
+    public TroughListener(Supplier<AnimalCareSettings> settings, TroughManager troughManager,
+                          HungerManager hungerManager, PenDetectionService penDetectionService,
+                          PlayerMessenger messenger) {
+        this.settings = settings;
         this.troughManager = troughManager;
         this.hungerManager = hungerManager;
         this.penDetectionService = penDetectionService;
-        this.debugEnabled = debugEnabled;
-        this.debugTool = debugTool;
+        this.messenger = messenger;
     }
 
     @EventHandler
@@ -51,7 +61,7 @@ public class TroughListener implements Listener {
             return;
         }
         Player player = event.getPlayer();
-        if (debugEnabled && event.getHand() == EquipmentSlot.HAND && isDebugTool(event.getItem())) {
+        if (isDebugTool(event.getItem()) && event.getHand() == EquipmentSlot.HAND) {
             handleTroughDebug(player, block);
             event.setCancelled(true);
             return;
@@ -60,11 +70,11 @@ public class TroughListener implements Listener {
         switch (result) {
             case ADDED -> {
                 event.setCancelled(true);
-                sendMessage(player, "messages.trough-filled");
+                messenger.send(player, "trough-filled");
             }
             case CONTAINER_FULL -> {
                 event.setCancelled(true);
-                sendMessage(player, "messages.trough-full");
+                messenger.send(player, "trough-full");
             }
             default -> {
                 // allow normal interaction/opening when not feeding
@@ -74,7 +84,7 @@ public class TroughListener implements Listener {
 
     @EventHandler
     public void onEntityDebug(PlayerInteractEntityEvent event) {
-        if (!debugEnabled || event.getHand() != EquipmentSlot.HAND) {
+        if (event.getHand() != EquipmentSlot.HAND) {
             return;
         }
         ItemStack held = event.getPlayer().getInventory().getItem(event.getHand());
@@ -87,10 +97,10 @@ public class TroughListener implements Listener {
         if (!hungerManager.isManagedEntity(living)) {
             return;
         }
-        PenDetectionService.PenStatus status = penDetectionService.getPenStatus(living);
+        PenDetectionService.PenInfo penInfo = penDetectionService.lookupPenInfo(living);
         int hunger = hungerManager.getHunger(living);
         int max = hungerManager.getMaxHunger();
-        event.getPlayer().sendMessage(ChatColor.GOLD + "Tier-Debug:" + ChatColor.GRAY + " Status=" + formatStatus(status)
+        event.getPlayer().sendMessage(ChatColor.GOLD + "Tier-Debug:" + ChatColor.GRAY + " Status=" + formatStatus(penInfo)
             + ChatColor.GRAY + " Hunger=" + hunger + "/" + max);
         event.setCancelled(true);
     }
@@ -101,38 +111,98 @@ public class TroughListener implements Listener {
         if (!troughManager.isTroughBlock(block.getType())) {
             return;
         }
+        troughManager.invalidateContainer(block);
         troughManager.deactivate(block.getLocation());
     }
 
-    private void sendMessage(Player player, String path) {
-        String message = config.getString(path);
-        if (message != null && !message.isEmpty()) {
-            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTroughPlace(BlockPlaceEvent event) {
+        // Covers containers renamed in an anvil: the custom name only reaches the block when it is placed.
+        Block block = event.getBlockPlaced();
+        if (troughManager.isTroughBlock(block.getType())) {
+            troughManager.invalidateContainer(block);
+            troughManager.handleTroughPlaced(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidateTroughs(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateTroughs(event.blockList());
+    }
+
+    private void invalidateTroughs(List<Block> blocks) {
+        for (Block block : blocks) {
+            if (!troughManager.isTroughBlock(block.getType())) {
+                continue;
+            }
+            troughManager.invalidateContainer(block);
+            troughManager.deactivate(block.getLocation());
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onContainerClose(InventoryCloseEvent event) {
+        troughManager.handleContainerClosed(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        troughManager.handleInventoryChanged(event.getDestination());
+        troughManager.handleInventoryChanged(event.getSource());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryPickup(InventoryPickupItemEvent event) {
+        troughManager.handleInventoryChanged(event.getInventory());
+    }
+
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        troughManager.handleChunkLoad(event.getChunk());
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        troughManager.handleChunkUnload(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        troughManager.handleWorldUnload(event.getWorld());
+    }
+
     private void handleTroughDebug(Player player, Block block) {
         TroughManager.TroughDebugInfo info = troughManager.inspectTrough(block);
         if (info == null) {
             player.sendMessage(ChatColor.RED + "Kein aktiver Trog an diesem Block.");
             return;
         }
-        double seconds = info.millisUntilNextFeed() / 1000.0D;
-        String formatted = String.format(Locale.US, "%.1f", seconds);
+        String formatted = info.millisUntilNextFeed() < 0L
+            ? "- (schläft)"
+            : String.format(Locale.US, "%.1fs", info.millisUntilNextFeed() / 1000.0D);
         player.sendMessage(ChatColor.GOLD + "Trog-Debug:" + ChatColor.GRAY + " Typ="
             + (info.doubleBarrel() ? "Doppelfass" : "Behälter")
             + ChatColor.GRAY + " Futter=" + info.feedItems()
             + ChatColor.GRAY + " Tiere=" + info.detectedAnimals()
             + ChatColor.GRAY + " Aktiv=" + (info.active() ? "ja" : "nein")
-            + ChatColor.GRAY + " nächste Fütterung in=" + formatted + "s");
+            + ChatColor.GRAY + " nächste Fütterung in=" + formatted);
     }
 
     private boolean isDebugTool(ItemStack stack) {
-        return stack != null && stack.getType() == debugTool;
+        AnimalCareSettings.DebugSettings debug = settings.get().debug();
+        return debug.enabled() && stack != null && stack.getType() == debug.tool();
     }
 
-    private String formatStatus(PenDetectionService.PenStatus status) {
-        return switch (status) {
+    private String formatStatus(PenDetectionService.PenInfo penInfo) {
+        if (penInfo == null) {
+            return "Unbekannt (wird ermittelt)";
+        }
+        return switch (penInfo.getStatus()) {
             case CAPTIVE -> "Gefangen";
             case PASTURE -> "Weide";
             default -> "Wildnis";
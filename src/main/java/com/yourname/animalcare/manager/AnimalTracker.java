@@ -0,0 +1,102 @@
+package com.yourname.animalcare.manager;
+
+import com.yourname.animalcare.util.ServerPlatform;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Source of the managed animals visited by the periodic jobs. On the main-thread platforms the worlds are simply
+ * iterated. Folia offers no thread that may walk every world, so there the animals are collected from entity load,
+ * spawn and removal events instead and each job hands the per-animal work to the animal's own scheduler.
+ */
+public class AnimalTracker {
+
+    private final ServerPlatform platform;
+    private final Predicate<LivingEntity> filter;
+    private final Map<UUID, LivingEntity> animals = new ConcurrentHashMap<>();
+
+    public AnimalTracker(ServerPlatform platform, Predicate<LivingEntity> filter) {
+        this.platform = platform;
+        this.filter = filter;
+    }
+
+    /**
+     * Whether animals come from events rather than from iterating the worlds.
+     */
+    public boolean isEventDriven() {
+        return platform.isRegionThreaded();
+    }
+
+    /**
+     * Picks up animals that were already loaded before the events were registered. Entities of regions the caller
+     * does not own are skipped; they are tracked once their chunks load again.
+     */
+    public void seed() {
+        if (!isEventDriven()) {
+            return;
+        }
+        for (World world : Bukkit.getWorlds()) {
+            try {
+                for (LivingEntity entity : world.getLivingEntities()) {
+                    track(entity);
+                }
+            } catch (RuntimeException ex) {
+                // Folia refuses world-wide entity access outside region threads; the load events fill the gap.
+            }
+        }
+    }
+
+    public void track(Entity entity) {
+        if (isEventDriven() && entity instanceof LivingEntity living && filter.test(living)) {
+            animals.put(living.getUniqueId(), living);
+        }
+    }
+
+    public void untrack(Entity entity) {
+        animals.remove(entity.getUniqueId());
+    }
+
+    /**
+     * Calls {@code action} for every managed animal on the thread owning it. On Folia animals that were removed
+     * meanwhile are dropped and reported to {@code retired} instead. Returns the number of animals dispatched, each
+     * of which ends in exactly one of the two callbacks.
+     */
+    public int forEach(Consumer<LivingEntity> action, Consumer<LivingEntity> retired) {
+        int dispatched = 0;
+        if (!isEventDriven()) {
+            for (World world : Bukkit.getWorlds()) {
+                for (LivingEntity entity : world.getLivingEntities()) {
+                    if (filter.test(entity)) {
+                        action.accept(entity);
+                        dispatched++;
+                    }
+                }
+            }
+            return dispatched;
+        }
+        for (LivingEntity entity : animals.values()) {
+            platform.execute(entity, () -> action.accept(entity), () -> {
+                untrack(entity);
+                retired.accept(entity);
+            });
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    public int size() {
+        return animals.size();
+    }
+
+    public void clear() {
+        animals.clear();
+    }
+}
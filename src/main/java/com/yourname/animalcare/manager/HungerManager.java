@@ -1,163 +1,226 @@
 package com.yourname.animalcare.manager;
 
-import org.bukkit.Bukkit;
+import com.yourname.animalcare.config.AnimalCareSettings.HungerSettings;
+import com.yourname.animalcare.core.HungerMath;
+import com.yourname.animalcare.core.PhaseScheduler;
+import com.yourname.animalcare.stats.HungerTickEvent;
+import com.yourname.animalcare.stats.Profiler;
 import org.bukkit.NamespacedKey;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.ObjIntConsumer;
 
 public class HungerManager {
 
-    private final JavaPlugin plugin;
+    /**
+     * Number of equal-width hunger ranges in the census taken by every hunger tick.
+     */
+    public static final int HUNGER_BUCKETS = 10;
+
     private final NamespacedKey hungerKey;
-    private final Set<EntityType> managedTypes;
-    private final int maxHunger;
-    private final int captiveLoss;
-    private final int pastureChange;
-    private final long hungerIntervalTicks;
-    private final int feedAmount;
-    private final int lowThreshold;
-    private final double starvationDamage;
-
-    private BukkitTask task;
-    private final PenDetectionService penDetectionService;
+    private volatile HungerSettings settings;
 
-    public HungerManager(JavaPlugin plugin, NamespacedKey hungerKey, FileConfiguration config, PenDetectionService penDetectionService) {
-        this.plugin = plugin;
+    private PhaseScheduler scheduler;
+    private PhaseScheduler.Job job;
+    private final PenDetectionService penDetectionService;
+    private final AnimalTracker animals;
+    private volatile Census census = new Census();
+    private final Profiler profiler;
+    private volatile ObjIntConsumer<LivingEntity> hungerUpdateListener = (entity, hunger) -> { };
+
+    public HungerManager(NamespacedKey hungerKey, HungerSettings settings, PenDetectionService penDetectionService,
+                         Profiler profiler, AnimalTracker animals) {
+        this.profiler = profiler;
+        this.animals = animals;
         this.hungerKey = hungerKey;
-        this.managedTypes = loadManagedTypes(config.getStringList("entities"));
         this.penDetectionService = penDetectionService;
-        ConfigurationSection hungerSection = config.getConfigurationSection("hunger");
-        this.maxHunger = hungerSection != null ? hungerSection.getInt("max", 100) : 100;
-        this.captiveLoss = hungerSection != null ? hungerSection.getInt("captive-loss", 5) : 5;
-        this.pastureChange = hungerSection != null ? hungerSection.getInt("pasture-change", -1) : -1;
-        this.feedAmount = hungerSection != null ? hungerSection.getInt("feed-amount", 25) : 25;
-        this.hungerIntervalTicks = hungerSection != null ? hungerSection.getLong("interval-ticks", 20L * 60L) : 20L * 60L;
-        ConfigurationSection effectsSection = hungerSection != null ? hungerSection.getConfigurationSection("effects") : null;
-        this.lowThreshold = effectsSection != null ? effectsSection.getInt("low-threshold", 30) : 30;
-        this.starvationDamage = effectsSection != null ? effectsSection.getDouble("starvation-damage", 1.0D) : 1.0D;
-    }
-
-    private Set<EntityType> loadManagedTypes(Iterable<String> values) {
-        if (values == null) {
-            return Collections.emptySet();
-        }
-        Set<EntityType> set = new HashSet<>();
-        for (String value : values) {
-            try {
-                set.add(EntityType.valueOf(value.toUpperCase()));
-            } catch (IllegalArgumentException ex) {
-                plugin.getLogger().warning("Unknown entity type in config: " + value);
-            }
-        }
-        return Collections.unmodifiableSet(set);
+        this.settings = settings;
     }
 
-    public void start() {
-        if (task != null) {
-            task.cancel();
-        }
-        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, hungerIntervalTicks, hungerIntervalTicks);
+    /**
+     * Swaps in reloaded settings. Returns whether the hunger interval changed, in which case the caller restarts the
+     * job.
+     */
+    public boolean applySettings(HungerSettings next) {
+        HungerSettings previous = settings;
+        settings = next;
+        return previous.intervalTicks() != next.intervalTicks();
+    }
+
+    /**
+     * Schedules the hunger tick on the first free phase after the pen scan. The scan only queues its flood fills, so
+     * hunger sees the statuses of the previous scan plus whatever the detection job finished since. Animals whose pen
+     * is not known yet, such as right after a start or reload, keep their hunger until the detection job reached them.
+     */
+    public void start(PhaseScheduler scheduler, PhaseScheduler.Job penScan) {
+        stop();
+        this.scheduler = scheduler;
+        this.job = scheduler.scheduleAfter("hunger tick", settings.intervalTicks(), this::tick, penScan);
+    }
+
+    public void setHungerUpdateListener(ObjIntConsumer<LivingEntity> listener) {
+        this.hungerUpdateListener = listener != null ? listener : (entity, hunger) -> { };
     }
 
     public void stop() {
-        if (task != null) {
-            task.cancel();
-            task = null;
+        if (job != null) {
+            scheduler.cancel(job);
+            job = null;
         }
     }
 
+    /**
+     * Applies hunger to every managed animal. On Folia the animals are updated on their own region threads after
+     * this returns; the census is published once the last of them has reported back.
+     */
     private void tick() {
-        Bukkit.getWorlds().forEach(world -> world.getLivingEntities().stream()
-            .filter(this::isManagedEntity)
-            .forEach(this::applyHungerTick));
+        HungerTickEvent event = new HungerTickEvent();
+        event.begin();
+        long started = profiler.start();
+        Census round = new Census();
+        int dispatched = animals.forEach(entity -> {
+            applyHungerTick(entity, round);
+            round.finish();
+        }, entity -> round.finish());
+        round.expect(dispatched);
+        profiler.stop(Profiler.Section.HUNGER_TICK, started);
+        if (event.shouldCommit()) {
+            event.animals = dispatched;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts of one hunger tick. Becomes the published census once every dispatched animal finished or retired.
+     */
+    private final class Census {
+        private final AtomicIntegerArray statuses = new AtomicIntegerArray(PenDetectionService.PenStatus.values().length);
+        private final AtomicIntegerArray buckets = new AtomicIntegerArray(HUNGER_BUCKETS);
+        private final AtomicInteger finished = new AtomicInteger();
+        private volatile int expected = -1;
+
+        private void finish() {
+            if (finished.incrementAndGet() == expected) {
+                census = this;
+            }
+        }
+
+        private void expect(int count) {
+            expected = count;
+            if (finished.get() == count) {
+                census = this;
+            }
+        }
     }
 
-    private void applyHungerTick(LivingEntity entity) {
-        if (!isManagedEntity(entity)) {
+    private void applyHungerTick(LivingEntity entity, Census round) {
+        HungerSettings current = settings;
+        PenDetectionService.PenInfo info = penDetectionService.lookupPenInfo(entity);
+        if (info == null) {
+            // Pen not known yet; the lookup queued a detection, hunger waits for it.
+            round.buckets.incrementAndGet(hungerBucket(getHunger(entity)));
             return;
         }
-        PenDetectionService.PenStatus status = penDetectionService.getPenStatus(entity);
+        PenDetectionService.PenStatus status = info.getStatus();
+        round.statuses.incrementAndGet(status.ordinal());
         if (status == PenDetectionService.PenStatus.WILD) {
-            setHunger(entity, maxHunger);
+            setHunger(entity, current.max());
+            round.buckets.incrementAndGet(hungerBucket(current.max()));
             return;
         }
 
-        int delta = 0;
-        if (status == PenDetectionService.PenStatus.CAPTIVE) {
-            delta = -Math.abs(captiveLoss);
-        } else if (status == PenDetectionService.PenStatus.PASTURE) {
-            delta = pastureChange;
-        }
+        int delta = HungerMath.tickDelta(status == PenDetectionService.PenStatus.PASTURE, current.captiveLoss(),
+            current.pastureChange());
 
         int hunger = addHunger(entity, delta);
-        applyStatusEffects(entity, hunger);
+        round.buckets.incrementAndGet(hungerBucket(hunger));
+        applyStatusEffects(entity, hunger, current);
+        hungerUpdateListener.accept(entity, hunger);
+    }
+
+    private int hungerBucket(int hunger) {
+        int maxHunger = settings.max();
+        if (maxHunger <= 0) {
+            return HUNGER_BUCKETS - 1;
+        }
+        return Math.min(HUNGER_BUCKETS - 1, Math.max(0, hunger) * HUNGER_BUCKETS / maxHunger);
+    }
+
+    /**
+     * Number of managed animals with the given pen status at the last hunger tick.
+     */
+    public int getAnimalCount(PenDetectionService.PenStatus status) {
+        return census.statuses.get(status.ordinal());
+    }
+
+    /**
+     * Number of managed animals in one hunger range at the last hunger tick. Bucket {@code i} covers hunger values
+     * from {@code i * max / HUNGER_BUCKETS} up to the next bucket; the last one includes full animals.
+     */
+    public int getHungerCount(int bucket) {
+        return census.buckets.get(bucket);
     }
 
     public boolean isManagedEntity(LivingEntity entity) {
-        return managedTypes.contains(entity.getType());
+        return settings.entities().contains(entity.getType());
     }
 
     public int getHunger(LivingEntity entity) {
         PersistentDataContainer container = entity.getPersistentDataContainer();
         Integer value = container.get(hungerKey, PersistentDataType.INTEGER);
+        int maxHunger = settings.max();
         if (value == null) {
             setHunger(entity, maxHunger);
             return maxHunger;
         }
-        return Math.max(0, Math.min(maxHunger, value));
+        return HungerMath.clamp(value, maxHunger);
     }
 
     public void setHunger(LivingEntity entity, int hunger) {
         PersistentDataContainer container = entity.getPersistentDataContainer();
-        container.set(hungerKey, PersistentDataType.INTEGER, Math.max(0, Math.min(maxHunger, hunger)));
+        container.set(hungerKey, PersistentDataType.INTEGER, HungerMath.clamp(hunger, settings.max()));
     }
 
     public int addHunger(LivingEntity entity, int amount) {
         if (amount == 0) {
             return getHunger(entity);
         }
-        int newHunger = Math.max(0, Math.min(maxHunger, getHunger(entity) + amount));
+        int newHunger = HungerMath.add(getHunger(entity), amount, settings.max());
         setHunger(entity, newHunger);
         return newHunger;
     }
 
     public int feedEntity(LivingEntity entity) {
-        return addHunger(entity, feedAmount);
+        return addHunger(entity, settings.feedAmount());
     }
 
     public int getMaxHunger() {
-        return maxHunger;
+        return settings.max();
     }
 
     public int getFeedAmount() {
-        return feedAmount;
+        return settings.feedAmount();
     }
 
-    private void applyStatusEffects(LivingEntity entity, int hunger) {
-        if (hunger > lowThreshold) {
+    private void applyStatusEffects(LivingEntity entity, int hunger, HungerSettings current) {
+        if (hunger > current.lowThreshold()) {
             entity.removePotionEffect(PotionEffectType.SLOW);
             entity.removePotionEffect(PotionEffectType.WEAKNESS);
         } else {
-            int duration = (int) Math.max(100, hungerIntervalTicks + 40);
+            int duration = (int) Math.max(100, current.intervalTicks() + 40);
             PotionEffect slowness = new PotionEffect(PotionEffectType.SLOW, duration, 0, true, false, true);
             PotionEffect weakness = new PotionEffect(PotionEffectType.WEAKNESS, duration, 0, true, false, true);
             entity.addPotionEffect(slowness);
             entity.addPotionEffect(weakness);
         }
-        if (hunger <= 0 && starvationDamage > 0 && !entity.isDead()) {
-            entity.damage(starvationDamage);
+        if (hunger <= 0 && current.starvationDamage() > 0 && !entity.isDead()) {
+            entity.damage(current.starvationDamage());
         }
     }
 }
@@ -0,0 +1,119 @@
+package com.yourname.animalcare.manager;
+
+import com.yourname.animalcare.config.AnimalCareSettings.MetricsSettings;
+import com.yourname.animalcare.core.PhaseScheduler;
+import com.yourname.animalcare.stats.MetricsRegistry;
+import com.yourname.animalcare.stats.MetricsSnapshot;
+import com.yourname.animalcare.stats.NdjsonSink;
+import com.yourname.animalcare.stats.PrometheusEndpoint;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Exports the metrics registry. A snapshot is taken on the main thread every {@code metrics.snapshot-interval-ticks};
+ * formatting, HTTP scrapes and file writes happen on background threads from that copy only.
+ */
+public class MetricsService {
+
+    private final JavaPlugin plugin;
+    private final MetricsRegistry registry;
+    private MetricsSettings settings;
+
+    private volatile MetricsSnapshot latest;
+    private PhaseScheduler scheduler;
+    private PhaseScheduler.Job job;
+    private PrometheusEndpoint endpoint;
+    private NdjsonSink sink;
+    private NdjsonSink draining;
+
+    public MetricsService(JavaPlugin plugin, MetricsSettings settings, MetricsRegistry registry) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.settings = settings;
+    }
+
+    /**
+     * Swaps in reloaded settings and restarts the exporters if anything about them changed. The old NDJSON writer
+     * finishes its queue in the background, so a reload never waits for the disk.
+     */
+    public void applySettings(MetricsSettings next) {
+        if (next.equals(settings)) {
+            return;
+        }
+        settings = next;
+        if (scheduler != null) {
+            stop(false);
+            start(scheduler);
+        }
+    }
+
+    public void start(PhaseScheduler scheduler) {
+        stop();
+        this.scheduler = scheduler;
+        String bindAddress = settings.bindAddress();
+        int port = settings.port();
+        if (settings.prometheusEnabled()) {
+            PrometheusEndpoint candidate = new PrometheusEndpoint(bindAddress, port, () -> latest);
+            try {
+                candidate.start();
+                endpoint = candidate;
+                plugin.getLogger().info("Serving Prometheus metrics on http://" + bindAddress + ":" + port + "/metrics");
+            } catch (IOException | IllegalArgumentException ex) {
+                candidate.stop();
+                plugin.getLogger().warning("Could not start the metrics endpoint on " + bindAddress + ":" + port
+                    + ": " + ex.getMessage());
+            }
+        }
+        if (settings.ndjsonEnabled()) {
+            Path file = plugin.getDataFolder().toPath().resolve(settings.ndjsonFile());
+            sink = new NdjsonSink(file, settings.maxFileBytes(), settings.maxFiles(), plugin.getLogger());
+            if (draining != null) {
+                sink.follow(draining);
+            }
+        }
+        draining = null;
+        if (endpoint == null && sink == null) {
+            return;
+        }
+        job = scheduler.scheduleDeferrable("metrics snapshot", settings.snapshotIntervalTicks(), this::takeSnapshot);
+    }
+
+    public void stop() {
+        stop(true);
+    }
+
+    /**
+     * Stops the exporters. With {@code await} the NDJSON writer is given a few seconds to flush, as on disable;
+     * otherwise it is only told to finish its queue.
+     */
+    private void stop(boolean await) {
+        if (job != null) {
+            scheduler.cancel(job);
+            job = null;
+        }
+        if (endpoint != null) {
+            endpoint.stop();
+            endpoint = null;
+        }
+        if (sink != null) {
+            if (await) {
+                sink.close();
+            } else {
+                sink.shutdown();
+                draining = sink;
+            }
+            sink = null;
+        }
+        latest = null;
+    }
+
+    private void takeSnapshot() {
+        MetricsSnapshot snapshot = registry.snapshot();
+        latest = snapshot;
+        if (sink != null) {
+            sink.submit(snapshot);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.yourname.animalcare.manager;
+
+import com.yourname.animalcare.util.BlockKeys;
+import com.yourname.animalcare.util.LongObjectMap;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Set;
+
+/**
+ * Block classification for pen flood fills in one world. Every block is read at most once: whether an animal can
+ * pass through it and whether it can stand on it are stored as bits of a 64-block column window, so neighbouring
+ * cells of one fill and the overlapping fills of animals sharing a pen answer from memory. The cache only lives for
+ * one scan cycle and single blocks can be invalidated when they change. Not thread-safe.
+ */
+final class PenBlockCache {
+
+    private static final int WINDOW_SHIFT = 6;
+    private static final int KNOWN = 0;
+    private static final int PASSABLE = 1;
+    private static final int STANDABLE = 2;
+
+    private final World world;
+    private final Set<Material> bypassBlocks;
+    private final LongObjectMap<long[]> windows = new LongObjectMap<>(1024);
+    private long hits;
+    private long misses;
+
+    PenBlockCache(World world, Set<Material> bypassBlocks) {
+        this.world = world;
+        this.bypassBlocks = bypassBlocks;
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    boolean isWalkable(int x, int y, int z) {
+        return has(x, y, z, PASSABLE) && has(x, y + 1, z, PASSABLE) && has(x, y - 1, z, STANDABLE);
+    }
+
+    /**
+     * Forgets a block that changed, so the next fill reads it again.
+     */
+    void invalidate(int x, int y, int z) {
+        long[] window = windows.get(windowKey(x, y, z));
+        if (window != null) {
+            window[KNOWN] &= ~bit(y);
+        }
+    }
+
+    /**
+     * Returns the lookups answered from memory since the last call and resets the count.
+     */
+    long takeHits() {
+        long taken = hits;
+        hits = 0L;
+        return taken;
+    }
+
+    /**
+     * Returns the blocks read from the world since the last call and resets the count.
+     */
+    long takeMisses() {
+        long taken = misses;
+        misses = 0L;
+        return taken;
+    }
+
+    private boolean has(int x, int y, int z, int property) {
+        long key = windowKey(x, y, z);
+        long[] window = windows.get(key);
+        if (window == null) {
+            window = new long[3];
+            windows.put(key, window);
+        }
+        long bit = bit(y);
+        if ((window[KNOWN] & bit) != 0L) {
+            hits++;
+        } else {
+            misses++;
+            Material type = world.getBlockAt(x, y, z).getType();
+            window[KNOWN] |= bit;
+            window[PASSABLE] = isPassable(type) ? window[PASSABLE] | bit : window[PASSABLE] & ~bit;
+            window[STANDABLE] = canStandOn(type) ? window[STANDABLE] | bit : window[STANDABLE] & ~bit;
+        }
+        return (window[property] & bit) != 0L;
+    }
+
+    private static long windowKey(int x, int y, int z) {
+        return BlockKeys.block(x, y >> WINDOW_SHIFT, z);
+    }
+
+    private static long bit(int y) {
+        return 1L << (y & ((1 << WINDOW_SHIFT) - 1));
+    }
+
+    private boolean isPassable(Material type) {
+        if (bypassBlocks.contains(type)) {
+            return true;
+        }
+        if (type == Material.WATER || type == Material.LAVA || type == Material.POWDER_SNOW) {
+            return false;
+        }
+        return type.isAir() || !type.isSolid();
+    }
+
+    private static boolean canStandOn(Material type) {
+        if (type == Material.AIR) {
+            return false;
+        }
+        String name = type.name();
+        if (name.endsWith("_FENCE") || name.endsWith("_WALL") || name.endsWith("_GATE")) {
+            return false;
+        }
+        if (type == Material.FARMLAND || type == Material.SNOW || name.endsWith("_PATH") || name.endsWith("_CARPET")) {
+            return true;
+        }
+        return type.isSolid();
+    }
+}
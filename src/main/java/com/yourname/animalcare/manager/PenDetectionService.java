@@ -1,26 +1,36 @@
 package com.yourname.animalcare.manager;
 
-import org.bukkit.Bukkit;
+import com.yourname.animalcare.config.AnimalCareSettings.PenSettings;
+import com.yourname.animalcare.core.PenFloodFill;
+import com.yourname.animalcare.core.PhaseScheduler;
+import com.yourname.animalcare.stats.FloodFillEvent;
+import com.yourname.animalcare.stats.Profiler;
+import com.yourname.animalcare.util.BlockKeys;
+import com.yourname.animalcare.util.ServerPlatform;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.entity.EntityType;
 import org.bukkit.entity.LivingEntity;
-import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.BoundingBox;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Detects which animals live in pens. Threading contract: the pen info cache, the pen regions and their members are
+ * concurrent, so {@link #getCachedPenInfo(UUID)}, {@link #findRegion}, {@link PenRegion#getMembers()} and the counts
+ * may be read from any thread. Detection and every cache update happen on the thread owning the animal, which is
+ * the main thread outside Folia. Callers never run a flood fill themselves: {@link #lookupPenInfo(LivingEntity)}
+ * answers from the cache and queues a detection for the budgeted detection job on a miss.
+ */
 public class PenDetectionService {
 
     public enum PenStatus {
@@ -34,12 +44,18 @@ public class PenDetectionService {
         private final BoundingBox boundingBox;
         private final int width;
         private final int length;
+        private final PenRegion region;
 
         public PenInfo(PenStatus status, BoundingBox boundingBox, int width, int length) {
+            this(status, boundingBox, width, length, null);
+        }
+
+        public PenInfo(PenStatus status, BoundingBox boundingBox, int width, int length, PenRegion region) {
             this.status = status;
             this.boundingBox = boundingBox;
             this.width = width;
             this.length = length;
+            this.region = region;
         }
 
         public PenStatus getStatus() {
@@ -57,395 +73,718 @@ public class PenDetectionService {
         public int getLength() {
             return length;
         }
-    }
-
-    private final JavaPlugin plugin;
-    private final Set<EntityType> trackedTypes;
-    private final int detectionRadius;
-    private final int minPenSize;
-    private final int maxVerticalDelta;
-    private final Set<Material> bypassBlocks;
-    private final long scanInterval;
-
-    private BukkitTask task;
-    private final Map<UUID, PenInfo> cachedPenInfo = new HashMap<>();
 
-    public PenDetectionService(JavaPlugin plugin, FileConfiguration config) {
-        this.plugin = plugin;
-        this.trackedTypes = loadEntityTypes(config.getStringList("entities"));
-        ConfigurationSection penSection = config.getConfigurationSection("pen");
-        this.detectionRadius = penSection != null ? penSection.getInt("detection-radius", 15) : 15;
-        this.minPenSize = penSection != null ? penSection.getInt("min-pen-size-xz", 10) : 10;
-        this.maxVerticalDelta = penSection != null ? penSection.getInt("max-vertical-delta", 4) : 4;
-        this.bypassBlocks = loadMaterials(penSection != null ? penSection.getStringList("ignore-blocks") : Collections.emptyList());
-        this.scanInterval = penSection != null ? penSection.getLong("scan-interval-ticks", 20L * 60L) : 20L * 60L;
+        public PenRegion getRegion() {
+            return region;
+        }
     }
 
-    private Set<EntityType> loadEntityTypes(Iterable<String> values) {
-        if (values == null) {
-            return Collections.emptySet();
+    /**
+     * Walkable area shared by every animal whose flood fill produced the same bounds. Keeps the animals last seen
+     * inside it so troughs can feed a pen without querying the world.
+     */
+    public static class PenRegion {
+        private final UUID worldId;
+        private final int minX;
+        private final int maxX;
+        private final int minY;
+        private final int maxY;
+        private final int minZ;
+        private final int maxZ;
+        private final PenStatus status;
+        private final Map<UUID, LivingEntity> members = new ConcurrentHashMap<>();
+
+        private PenRegion(RegionKey key, PenStatus status) {
+            this.worldId = key.worldId();
+            this.minX = key.minX();
+            this.maxX = key.maxX();
+            this.minY = key.minY();
+            this.maxY = key.maxY();
+            this.minZ = key.minZ();
+            this.maxZ = key.maxZ();
+            this.status = status;
         }
-        Set<EntityType> set = new HashSet<>();
-        for (String value : values) {
-            try {
-                set.add(EntityType.valueOf(value.toUpperCase()));
-            } catch (IllegalArgumentException ex) {
-                plugin.getLogger().warning("Unknown entity type in config: " + value);
-            }
+
+        public PenStatus getStatus() {
+            return status;
         }
-        return Collections.unmodifiableSet(set);
-    }
 
-    private Set<Material> loadMaterials(Iterable<String> values) {
-        if (values == null) {
-            return Collections.emptySet();
+        public UUID getWorldId() {
+            return worldId;
         }
-        Set<Material> set = new HashSet<>();
-        for (String value : values) {
-            Material material = resolveMaterial(value);
-            if (material != null) {
-                set.add(material);
-            } else {
-                plugin.getLogger().warning("Unknown material in configuration list: " + value);
-            }
+
+        /**
+         * Live view of the animals assigned to this pen. Entries may have died or unloaded since the last scan.
+         */
+        public Collection<LivingEntity> getMembers() {
+            return Collections.unmodifiableCollection(members.values());
         }
-        return Collections.unmodifiableSet(set);
-    }
 
-    private Material resolveMaterial(String value) {
-        if (value == null) {
-            return null;
+        public int getMemberCount() {
+            return members.size();
         }
-        String trimmed = value.trim();
-        if (trimmed.isEmpty()) {
-            return null;
+
+        public void pruneInvalidMembers() {
+            members.values().removeIf(entity -> !entity.isValid());
         }
 
-        Material material = Material.matchMaterial(trimmed, true);
-        if (material != null) {
-            return material;
+        boolean contains(double x, double y, double z, int horizontalMargin) {
+            return x >= minX - horizontalMargin && x < maxX + 1 + horizontalMargin
+                && y >= minY - 1 && y < maxY + 2
+                && z >= minZ - horizontalMargin && z < maxZ + 1 + horizontalMargin;
         }
 
-        String upper = trimmed.toUpperCase(Locale.ROOT);
-        if ("GRASS".equals(upper)) {
-            return Material.SHORT_GRASS;
+        /**
+         * Stable block key of the region's lowest corner, used to give all troughs of a pen the same phase.
+         */
+        public long getAnchorKey() {
+            return BlockKeys.block(minX, minY, minZ);
         }
 
-        return Material.matchMaterial(upper);
+        long area() {
+            return (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+        }
     }
 
-    public void start() {
-        if (task != null) {
-            task.cancel();
-        }
-        task = Bukkit.getScheduler().runTaskTimer(plugin, this::scanPens, scanInterval, scanInterval);
+    private record RegionKey(UUID worldId, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
     }
 
-    public void stop() {
-        if (task != null) {
-            task.cancel();
-            task = null;
-        }
-        cachedPenInfo.clear();
+    /**
+     * Regions reaching into one chunk, fence margin included, and the stamp of the last change to that list. Cells
+     * are replaced rather than mutated, so readers on other threads always see a consistent pair.
+     */
+    private record RegionCell(List<PenRegion> regions, long stamp) {
     }
 
-    private void scanPens() {
-        for (World world : Bukkit.getWorlds()) {
-            for (LivingEntity entity : world.getLivingEntities()) {
-                if (!trackedTypes.contains(entity.getType())) {
-                    continue;
-                }
-                cachedPenInfo.put(entity.getUniqueId(), detectPen(entity));
-            }
+    private final Profiler profiler;
+    private final ServerPlatform platform;
+    private final AnimalTracker animals;
+    private volatile Detection detection;
+
+    private PhaseScheduler scheduler;
+    private PhaseScheduler.Job scanJob;
+    private PhaseScheduler.Job requestJob;
+    private PhaseScheduler.Job detectionJob;
+    private final Map<UUID, PendingDetection> pending = new HashMap<>();
+    private final ArrayDeque<PendingDetection> requestQueue = new ArrayDeque<>();
+    private final ArrayDeque<PendingDetection> detectionQueue = new ArrayDeque<>();
+    private long requestNanos;
+    private int requestFills;
+    private final Map<UUID, PenBlockCache> blockCaches = new HashMap<>();
+    private final Map<UUID, PenInfo> cachedPenInfo = new ConcurrentHashMap<>();
+    private final Map<RegionKey, PenRegion> regions = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<Long, RegionCell>> regionIndex = new ConcurrentHashMap<>();
+    private final AtomicLong regionStamps = new AtomicLong();
+
+    /**
+     * Settings together with the flood fill built from them, swapped as one so a running detection never mixes two
+     * configurations.
+     */
+    private record Detection(PenSettings settings, PenFloodFill floodFill) {
+        private Detection(PenSettings settings) {
+            this(settings, new PenFloodFill(settings.detectionRadius(), settings.maxVerticalDelta(),
+                settings.maxFillNodes(), settings.escapeProbe()));
         }
     }
 
-    private PenInfo detectPen(LivingEntity entity) {
-        if (!entity.isValid() || detectionRadius <= 0) {
-            return new PenInfo(PenStatus.WILD, null, 0, 0);
+    /**
+     * Animal waiting for a queued detection, with the actions to complete once its pen is known. Entries with
+     * callbacks wait in {@link #requestQueue}, all others in {@link #detectionQueue}. The fields are guarded by
+     * {@link #pending}, except {@code detecting}, which belongs to whoever took the entry off the queue.
+     */
+    private static final class PendingDetection {
+        private final LivingEntity entity;
+        private final List<Consumer<PenInfo>> callbacks = new ArrayList<>(1);
+        private boolean refresh;
+        private boolean waiting;
+        private Detecting detecting;
+
+        private PendingDetection(LivingEntity entity) {
+            this.entity = entity;
         }
+    }
 
-        Location location = entity.getLocation();
-        World world = location.getWorld();
-        if (world == null) {
-            return new PenInfo(PenStatus.WILD, null, 0, 0);
+    /**
+     * Flood fill of one animal in progress, possibly spread over several ticks. Keeps the settings it started with.
+     */
+    private static final class Detecting {
+        private final Detection detection;
+        private final World world;
+        private final PenBlockCache blocks;
+        private final OwnedWalkability owned;
+        private final PenFloodFill.Search search;
+        private final FloodFillEvent event;
+        private final int baseX;
+        private final int baseY;
+        private final int baseZ;
+        private boolean done;
+        private PenInfo result;
+
+        private Detecting(Detection detection, World world, PenBlockCache blocks, OwnedWalkability owned,
+                          PenFloodFill.Search search, FloodFillEvent event, int baseX, int baseY, int baseZ) {
+            this.detection = detection;
+            this.world = world;
+            this.blocks = blocks;
+            this.owned = owned;
+            this.search = search;
+            this.event = event;
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.baseZ = baseZ;
+        }
+
+        private static Detecting finished(Detection detection, PenInfo result) {
+            Detecting detecting = new Detecting(detection, null, null, null, null, null, 0, 0, 0);
+            detecting.done = true;
+            detecting.result = result;
+            return detecting;
         }
+    }
 
-        int baseX = location.getBlockX();
-        int baseY = findStartingY(world, baseX, location.getBlockY(), location.getBlockZ());
-        int baseZ = location.getBlockZ();
-
-        if (!isWalkable(world, baseX, baseY, baseZ)) {
-            return new PenInfo(PenStatus.WILD, null, 0, 0);
-        }
+    public PenDetectionService(PenSettings settings, Profiler profiler, ServerPlatform platform,
+                               AnimalTracker animals) {
+        this.profiler = profiler;
+        this.platform = platform;
+        this.animals = animals;
+        this.detection = new Detection(settings);
+    }
 
-        FloodFillResult fillResult = floodFillArea(world, baseX, baseY, baseZ);
-        if (fillResult == null || fillResult.isEscaped()) {
-            return new PenInfo(PenStatus.WILD, null, 0, 0);
-        }
+    /**
+     * Swaps in reloaded settings. Cached pens survive unless an input of the detection changed. Returns whether the
+     * scan interval changed, in which case the caller restarts the scan job.
+     */
+    public boolean applySettings(PenSettings next) {
+        PenSettings previous = detection.settings();
+        detection = new Detection(next);
+        blockCaches.clear();
+        if (!next.sameDetection(previous)) {
+            cachedPenInfo.clear();
+            regions.clear();
+            regionIndex.clear();
+        }
+        return previous.scanIntervalTicks() != next.scanIntervalTicks();
+    }
 
-        int width = fillResult.getMaxX() - fillResult.getMinX() + 1;
-        int length = fillResult.getMaxZ() - fillResult.getMinZ() + 1;
+    public void start(PhaseScheduler scheduler) {
+        if (scanJob != null) {
+            this.scheduler.cancel(scanJob);
+            this.scheduler.cancel(requestJob);
+            this.scheduler.cancel(detectionJob);
+        }
+        this.scheduler = scheduler;
+        this.scanJob = scheduler.scheduleDeferrable("pen scan", detection.settings().scanIntervalTicks(),
+            this::scanPens);
+        this.requestJob = scheduler.schedule("pen requests", 1L, this::runRequestedDetections);
+        this.detectionJob = scheduler.scheduleDeferrable("pen detections", 1L, this::runPendingDetections);
+    }
 
-        PenStatus status = (width < minPenSize || length < minPenSize) ? PenStatus.CAPTIVE : PenStatus.PASTURE;
-        BoundingBox boundingBox = new BoundingBox(
-                fillResult.getMinX(),
-                fillResult.getMinY() - 1,
-                fillResult.getMinZ(),
-                fillResult.getMaxX() + 1,
-                fillResult.getMaxY() + 2,
-                fillResult.getMaxZ() + 1
-        );
-        return new PenInfo(status, boundingBox, width, length);
+    public PhaseScheduler.Job getScanJob() {
+        return scanJob;
     }
 
-    private FloodFillResult floodFillArea(World world, int baseX, int baseY, int baseZ) {
-        int verticalLimit = Math.max(1, maxVerticalDelta);
-        int horizontalLimit = Math.max(1, detectionRadius);
+    public void stop() {
+        if (scanJob != null) {
+            scheduler.cancel(scanJob);
+            scheduler.cancel(requestJob);
+            scheduler.cancel(detectionJob);
+            scanJob = null;
+            requestJob = null;
+            detectionJob = null;
+        }
+        synchronized (pending) {
+            pending.clear();
+            requestQueue.clear();
+            detectionQueue.clear();
+        }
+        blockCaches.clear();
+        cachedPenInfo.clear();
+        regions.clear();
+        regionIndex.clear();
+    }
 
-        Set<BlockPos> visited = new HashSet<>();
-        ArrayDeque<BlockPos> queue = new ArrayDeque<>();
+    /**
+     * Queues a fresh detection for every tracked animal; the detection job then works them off under its time budget.
+     * Animals keep their previous pen until their turn comes.
+     */
+    private void scanPens() {
+        long started = profiler.start();
+        blockCaches.clear();
+        animals.forEach(entity -> {
+            if (detection.settings().entities().contains(entity.getType())) {
+                queueDetection(entity, null, true);
+            }
+        }, this::forget);
+        profiler.stop(Profiler.Section.PEN_SCAN, started);
+    }
 
-        BlockPos start = new BlockPos(baseX, baseY, baseZ);
-        queue.add(start);
-        visited.add(start);
+    /**
+     * Works off detections an interaction waits for, such as a pending hand feeding. Runs every tick regardless of
+     * the governor, so a player never waits for a deferred job; it uses the detection budget first and leaves the
+     * rest of it to {@link #runPendingDetections()}, which runs after it on the same tick.
+     */
+    private void runRequestedDetections() {
+        PenSettings settings = detection.settings();
+        long started = System.nanoTime();
+        requestFills = workOff(requestQueue, (long) (settings.fillBudgetMillis() * 1_000_000L),
+            settings.detectionsPerTick());
+        requestNanos = System.nanoTime() - started;
+    }
 
-        int minX = baseX;
-        int maxX = baseX;
-        int minY = baseY;
-        int maxY = baseY;
-        int minZ = baseZ;
-        int maxZ = baseZ;
+    /**
+     * Works off queued scan and lookup detections with what {@code pen.fill-budget-ms} and
+     * {@code pen.detections-per-tick} leave after this tick's requested detections. A fill that runs out of time is
+     * suspended with its search state and resumed first on the next tick. The job is deferrable, so under load the
+     * governor pushes the flood fills to quieter ticks. On Folia every animal is handed to its own region thread with
+     * a full time slice.
+     */
+    private void runPendingDetections() {
+        PenSettings settings = detection.settings();
+        long budget = (long) (settings.fillBudgetMillis() * 1_000_000L) - requestNanos;
+        int fills = settings.detectionsPerTick() - requestFills;
+        requestNanos = 0L;
+        requestFills = 0;
+        workOff(detectionQueue, budget, fills);
+        synchronized (pending) {
+            if (requestQueue.isEmpty() && detectionQueue.isEmpty() && !platform.isRegionThreaded()) {
+                blockCaches.clear();
+            }
+        }
+    }
 
-        while (!queue.isEmpty()) {
-            BlockPos current = queue.poll();
+    /**
+     * Steps detections from the front of {@code queue} until {@code budget} nanoseconds are spent or {@code maxFills}
+     * new fills started, and returns the number of fills started.
+     */
+    private int workOff(ArrayDeque<PendingDetection> queue, long budget, int maxFills) {
+        long spent = 0L;
+        int startedFills = 0;
+        while (spent < budget) {
+            PendingDetection next;
+            synchronized (pending) {
+                next = queue.peekFirst();
+                if (next == null || (next.detecting == null && startedFills >= maxFills)) {
+                    return startedFills;
+                }
+                queue.pollFirst();
+                next.waiting = false;
+            }
+            if (next.detecting == null) {
+                startedFills++;
+            }
+            long slice = budget - spent;
+            long started = System.nanoTime();
+            platform.execute(next.entity, () -> stepDetection(next, slice), () -> {
+                forget(next.entity);
+                completeDetection(next, null);
+            });
+            spent += System.nanoTime() - started;
+        }
+        return startedFills;
+    }
 
-            if (Math.abs(current.x - baseX) > horizontalLimit || Math.abs(current.z - baseZ) > horizontalLimit) {
-                return FloodFillResult.escaped();
+    private void stepDetection(PendingDetection queued, long budgetNanos) {
+        LivingEntity entity = queued.entity;
+        if (!entity.isValid()) {
+            completeDetection(queued, null);
+            return;
+        }
+        Detecting detecting = queued.detecting;
+        if (detecting != null && detecting.detection != detection) {
+            detecting = null;
+        }
+        if (detecting == null) {
+            boolean refresh;
+            synchronized (pending) {
+                refresh = queued.refresh;
+            }
+            PenInfo cached = cachedPenInfo.get(entity.getUniqueId());
+            if (!detection.settings().entities().contains(entity.getType())) {
+                completeDetection(queued, new PenInfo(PenStatus.WILD, null, 0, 0));
+                return;
             }
+            if (cached != null && !refresh) {
+                completeDetection(queued, cached);
+                return;
+            }
+            detecting = beginDetection(entity);
+        }
+        if (!advanceDetection(entity, detecting, budgetNanos)) {
+            queued.detecting = detecting;
+            synchronized (pending) {
+                (queued.callbacks.isEmpty() ? detectionQueue : requestQueue).addFirst(queued);
+                queued.waiting = true;
+            }
+            return;
+        }
+        PenInfo info = detecting.result;
+        if (info != null) {
+            updatePenInfo(entity, info);
+        } else {
+            // An inconclusive fill keeps the last known answer; without one it is remembered as wild until the next
+            // scan retries it, so lookups in between hit the cache instead of queueing the capped fill again.
+            PenInfo wild = new PenInfo(PenStatus.WILD, null, 0, 0);
+            PenInfo previous = cachedPenInfo.putIfAbsent(entity.getUniqueId(), wild);
+            info = previous != null ? previous : wild;
+        }
+        completeDetection(queued, info);
+    }
+
+    private void completeDetection(PendingDetection queued, PenInfo info) {
+        List<Consumer<PenInfo>> callbacks;
+        synchronized (pending) {
+            pending.remove(queued.entity.getUniqueId(), queued);
+            callbacks = new ArrayList<>(queued.callbacks);
+        }
+        for (Consumer<PenInfo> callback : callbacks) {
+            callback.accept(info);
+        }
+    }
 
-            minX = Math.min(minX, current.x);
-            maxX = Math.max(maxX, current.x);
-            minY = Math.min(minY, current.y);
-            maxY = Math.max(maxY, current.y);
-            minZ = Math.min(minZ, current.z);
-            maxZ = Math.max(maxZ, current.z);
-
-            for (Direction direction : Direction.values()) {
-                int nextX = current.x + direction.xOffset;
-                int nextZ = current.z + direction.zOffset;
-
-                for (int deltaY : direction.yCandidates) {
-                    int nextY = current.y + deltaY;
-                    if (Math.abs(nextY - baseY) > verticalLimit) {
-                        continue;
-                    }
-                    if (!isWalkable(world, nextX, nextY, nextZ)) {
-                        continue;
-                    }
-
-                    BlockPos next = new BlockPos(nextX, nextY, nextZ);
-                    if (visited.contains(next)) {
-                        continue;
-                    }
-
-                    if (Math.abs(next.x - baseX) > horizontalLimit || Math.abs(next.z - baseZ) > horizontalLimit) {
-                        return FloodFillResult.escaped();
-                    }
-
-                    visited.add(next);
-                    queue.add(next);
+    private void queueDetection(LivingEntity entity, Consumer<PenInfo> callback, boolean refresh) {
+        synchronized (pending) {
+            PendingDetection queued = pending.get(entity.getUniqueId());
+            if (queued == null) {
+                queued = new PendingDetection(entity);
+                pending.put(entity.getUniqueId(), queued);
+                queued.waiting = true;
+                if (callback != null) {
+                    requestQueue.addLast(queued);
+                } else {
+                    detectionQueue.addLast(queued);
                 }
+            } else if (callback != null && queued.callbacks.isEmpty() && queued.waiting) {
+                detectionQueue.remove(queued);
+                if (queued.detecting != null) {
+                    requestQueue.addFirst(queued);
+                } else {
+                    requestQueue.addLast(queued);
+                }
+            }
+            queued.refresh |= refresh;
+            if (callback != null) {
+                queued.callbacks.add(callback);
             }
         }
+    }
 
-        if (visited.isEmpty()) {
-            return null;
+    private void forget(LivingEntity entity) {
+        PenInfo previous = cachedPenInfo.remove(entity.getUniqueId());
+        PenRegion region = previous != null ? previous.getRegion() : null;
+        if (region != null) {
+            region.members.remove(entity.getUniqueId());
+            if (region.members.isEmpty() && regions.values().remove(region)) {
+                unindexRegion(region);
+            }
         }
-
-        return FloodFillResult.enclosed(minX, maxX, minY, maxY, minZ, maxZ);
     }
 
-    private boolean isWalkable(World world, int x, int y, int z) {
-        Material feet = world.getBlockAt(x, y, z).getType();
-        if (!isPassable(feet)) {
-            return false;
+    private Detecting beginDetection(LivingEntity entity) {
+        Detection current = detection;
+        PenSettings settings = current.settings();
+        if (!entity.isValid() || settings.detectionRadius() <= 0) {
+            return Detecting.finished(current, new PenInfo(PenStatus.WILD, null, 0, 0));
         }
 
-        Material head = world.getBlockAt(x, y + 1, z).getType();
-        if (!isPassable(head)) {
-            return false;
+        Location location = entity.getLocation();
+        World world = location.getWorld();
+        if (world == null) {
+            return Detecting.finished(current, new PenInfo(PenStatus.WILD, null, 0, 0));
+        }
+
+        PenBlockCache blocks = blockCache(world, settings);
+        OwnedWalkability owned = platform.isRegionThreaded() ? new OwnedWalkability(blocks) : null;
+        PenFloodFill.Walkability walkability = owned != null ? owned : blocks::isWalkable;
+        PenFloodFill floodFill = current.floodFill();
+        int baseX = location.getBlockX();
+        int baseY = floodFill.findStartingY(walkability, baseX, location.getBlockY(), location.getBlockZ());
+        int baseZ = location.getBlockZ();
+
+        if (!walkability.isWalkable(baseX, baseY, baseZ)) {
+            countBlockReads(blocks);
+            return Detecting.finished(current,
+                owned != null && owned.foreign ? null : new PenInfo(PenStatus.WILD, null, 0, 0));
         }
 
-        Material below = world.getBlockAt(x, y - 1, z).getType();
-        return canStandOn(below);
+        FloodFillEvent event = new FloodFillEvent();
+        event.begin();
+        return new Detecting(current, world, blocks, owned, floodFill.start(walkability, baseX, baseY, baseZ),
+            event, baseX, baseY, baseZ);
     }
 
-    private boolean isPassable(Material type) {
-        if (bypassBlocks.contains(type)) {
+    /**
+     * Continues the fill for at most {@code budgetNanos}. Returns whether it finished, in which case the pen info
+     * (or {@code null} if inconclusive) is in {@link Detecting#result}.
+     */
+    private boolean advanceDetection(LivingEntity entity, Detecting detecting, long budgetNanos) {
+        if (detecting.done) {
             return true;
         }
-        if (type == Material.WATER || type == Material.LAVA || type == Material.POWDER_SNOW) {
+        long started = profiler.start();
+        boolean finished = detecting.search.advance(budgetNanos);
+        profiler.stop(Profiler.Section.FLOOD_FILL, started);
+        countBlockReads(detecting.blocks);
+        if (!finished) {
             return false;
         }
-        return type.isAir() || !type.isSolid();
+        detecting.done = true;
+        detecting.result = finishDetection(entity, detecting, detecting.search.getResult());
+        return true;
     }
 
-    private boolean canStandOn(Material type) {
-        if (type == Material.AIR) {
-            return false;
+    /**
+     * Block cache for a fill. Outside Folia all fills of a scan cycle share one cache per world, which is dropped
+     * once the detection queue has drained; on Folia fills run on different region threads and each gets its own.
+     */
+    private PenBlockCache blockCache(World world, PenSettings settings) {
+        if (platform.isRegionThreaded()) {
+            return new PenBlockCache(world, settings.ignoreBlocks());
         }
-        String name = type.name();
-        if (name.endsWith("_FENCE") || name.endsWith("_WALL") || name.endsWith("_GATE")) {
-            return false;
+        return blockCaches.computeIfAbsent(world.getUID(), id -> new PenBlockCache(world, settings.ignoreBlocks()));
+    }
+
+    private void countBlockReads(PenBlockCache blocks) {
+        profiler.count(Profiler.Counter.BLOCK_CACHE_HIT, blocks.takeHits());
+        profiler.count(Profiler.Counter.BLOCK_CACHE_MISS, blocks.takeMisses());
+    }
+
+    /**
+     * Forgets a changed block in the shared block cache, so fills later in the same scan cycle see the change.
+     */
+    public void invalidateBlock(World world, int x, int y, int z) {
+        if (platform.isRegionThreaded() || world == null) {
+            return;
         }
-        if (type == Material.FARMLAND || type == Material.SNOW || name.endsWith("_PATH") || name.endsWith("_CARPET")) {
-            return true;
+        PenBlockCache blocks = blockCaches.get(world.getUID());
+        if (blocks != null) {
+            blocks.invalidate(x, y, z);
         }
-        return type.isSolid();
     }
 
-    private int findStartingY(World world, int x, int initialY, int z) {
-        int y = initialY;
-        for (int i = 0; i < 3; i++) {
-            if (isWalkable(world, x, y, z)) {
-                return y;
-            }
-            y--;
+    private PenInfo finishDetection(LivingEntity entity, Detecting detecting, PenFloodFill.Result fillResult) {
+        FloodFillEvent event = detecting.event;
+        World world = detecting.world;
+        if (event.shouldCommit()) {
+            event.entityType = entity.getType().name();
+            event.entityId = entity.getUniqueId().toString();
+            event.world = world.getName();
+            event.x = detecting.baseX;
+            event.y = detecting.baseY;
+            event.z = detecting.baseZ;
+            event.visitedNodes = fillResult.getVisitedNodes();
+            event.slices = detecting.search.getSlices();
+            event.escaped = fillResult.isEscaped();
+            event.capped = fillResult.isInconclusive();
+            event.commit();
+        }
+        if (detecting.owned != null && detecting.owned.foreign) {
+            return null;
         }
-        y = initialY + 1;
-        for (int i = 0; i < 2; i++) {
-            if (isWalkable(world, x, y, z)) {
-                return y;
-            }
-            y++;
+        profiler.count(Profiler.Counter.FLOOD_NODES, fillResult.getVisitedNodes());
+        if (fillResult.isInconclusive()) {
+            profiler.count(Profiler.Counter.FLOOD_CAPPED);
+            return null;
+        }
+        profiler.count(fillResult.isEscaped() ? Profiler.Counter.FLOOD_ESCAPED : Profiler.Counter.FLOOD_ENCLOSED);
+        if (fillResult.isEscaped()) {
+            return new PenInfo(PenStatus.WILD, null, 0, 0);
         }
-        return initialY;
-    }
 
-    private static class FloodFillResult {
-        private final boolean escaped;
-        private final int minX;
-        private final int maxX;
-        private final int minY;
-        private final int maxY;
-        private final int minZ;
-        private final int maxZ;
+        int width = fillResult.getMaxX() - fillResult.getMinX() + 1;
+        int length = fillResult.getMaxZ() - fillResult.getMinZ() + 1;
 
-        private FloodFillResult(boolean escaped, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
-            this.escaped = escaped;
-            this.minX = minX;
-            this.maxX = maxX;
-            this.minY = minY;
-            this.maxY = maxY;
-            this.minZ = minZ;
-            this.maxZ = maxZ;
-        }
+        PenSettings settings = detecting.detection.settings();
+        PenStatus status = (width < settings.minPenSize() || length < settings.minPenSize())
+            ? PenStatus.CAPTIVE : PenStatus.PASTURE;
+        RegionKey regionKey = new RegionKey(world.getUID(), fillResult.getMinX(), fillResult.getMaxX(),
+                fillResult.getMinY(), fillResult.getMaxY(), fillResult.getMinZ(), fillResult.getMaxZ());
+        PenRegion region = regions.computeIfAbsent(regionKey, key -> {
+            PenRegion created = new PenRegion(key, status);
+            indexRegion(created);
+            return created;
+        });
+        BoundingBox boundingBox = new BoundingBox(
+                fillResult.getMinX(),
+                fillResult.getMinY() - 1,
+                fillResult.getMinZ(),
+                fillResult.getMaxX() + 1,
+                fillResult.getMaxY() + 2,
+                fillResult.getMaxZ() + 1
+        );
+        return new PenInfo(status, boundingBox, width, length, region);
+    }
 
-        public static FloodFillResult escaped() {
-            return new FloodFillResult(true, 0, 0, 0, 0, 0, 0);
+    private void updatePenInfo(LivingEntity entity, PenInfo info) {
+        PenInfo previous = cachedPenInfo.put(entity.getUniqueId(), info);
+        PenRegion oldRegion = previous != null ? previous.getRegion() : null;
+        PenRegion newRegion = info.getRegion();
+        if (oldRegion != null && oldRegion != newRegion) {
+            oldRegion.members.remove(entity.getUniqueId());
+            if (oldRegion.members.isEmpty() && regions.values().remove(oldRegion)) {
+                unindexRegion(oldRegion);
+            }
         }
-
-        public static FloodFillResult enclosed(int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
-            return new FloodFillResult(false, minX, maxX, minY, maxY, minZ, maxZ);
+        if (newRegion != null) {
+            newRegion.members.put(entity.getUniqueId(), entity);
         }
+    }
 
-        public boolean isEscaped() {
-            return escaped;
-        }
+    private void indexRegion(PenRegion region) {
+        Map<Long, RegionCell> cells = regionIndex.computeIfAbsent(region.worldId, id -> new ConcurrentHashMap<>());
+        forEachChunk(region, chunk -> cells.compute(chunk, (key, cell) -> {
+            List<PenRegion> list = cell != null ? new ArrayList<>(cell.regions()) : new ArrayList<>(1);
+            list.add(region);
+            return new RegionCell(list, regionStamps.incrementAndGet());
+        }));
+    }
 
-        public int getMinX() {
-            return minX;
+    private void unindexRegion(PenRegion region) {
+        Map<Long, RegionCell> cells = regionIndex.get(region.worldId);
+        if (cells == null) {
+            return;
         }
+        forEachChunk(region, chunk -> cells.computeIfPresent(chunk, (key, cell) -> {
+            List<PenRegion> list = new ArrayList<>(cell.regions());
+            list.remove(region);
+            return list.isEmpty() ? null : new RegionCell(list, regionStamps.incrementAndGet());
+        }));
+    }
 
-        public int getMaxX() {
-            return maxX;
+    private static void forEachChunk(PenRegion region, Consumer<Long> action) {
+        for (int chunkX = (region.minX - 1) >> 4; chunkX <= (region.maxX + 1) >> 4; chunkX++) {
+            for (int chunkZ = (region.minZ - 1) >> 4; chunkZ <= (region.maxZ + 1) >> 4; chunkZ++) {
+                action.accept(BlockKeys.chunk(chunkX, chunkZ));
+            }
         }
+    }
 
-        public int getMinY() {
-            return minY;
-        }
+    private RegionCell cellAt(UUID worldId, long chunkKey) {
+        Map<Long, RegionCell> cells = regionIndex.get(worldId);
+        return cells != null ? cells.get(chunkKey) : null;
+    }
 
-        public int getMaxY() {
-            return maxY;
+    /**
+     * Finds the pen a block position belongs to. Positions inside a pen's bounds win over positions on its fence
+     * line (one block margin); among several candidates the smallest pen is chosen. Only the regions indexed for the
+     * position's chunk are checked.
+     */
+    public PenRegion findRegion(World world, double x, double y, double z) {
+        if (world == null) {
+            return null;
         }
-
-        public int getMinZ() {
-            return minZ;
+        RegionCell cell = cellAt(world.getUID(), chunkKeyAt(x, z));
+        if (cell == null) {
+            return null;
         }
-
-        public int getMaxZ() {
-            return maxZ;
+        PenRegion best = null;
+        boolean bestInside = false;
+        for (PenRegion region : cell.regions()) {
+            if (!region.contains(x, y, z, 1)) {
+                continue;
+            }
+            boolean inside = region.contains(x, y, z, 0);
+            if (best == null || (inside && !bestInside)
+                    || (inside == bestInside && region.area() < best.area())) {
+                best = region;
+                bestInside = inside;
+            }
         }
+        return best;
     }
 
-    private enum Direction {
-        NORTH(0, -1, new int[]{0, 1, -1}),
-        SOUTH(0, 1, new int[]{0, 1, -1}),
-        EAST(1, 0, new int[]{0, 1, -1}),
-        WEST(-1, 0, new int[]{0, 1, -1});
+    /**
+     * Chunk key of a position, matching the keys {@link #getRegionVersion(World, long)} expects.
+     */
+    public static long chunkKeyAt(double x, double z) {
+        return BlockKeys.chunk((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+    }
 
-        private final int xOffset;
-        private final int zOffset;
-        private final int[] yCandidates;
+    /**
+     * Changes whenever a pen region reaching into the chunk appears or disappears, so callers can cache region
+     * lookups per position; pens elsewhere, even in the same world, leave it alone. Stamps are never reused.
+     */
+    public long getRegionVersion(World world, long chunkKey) {
+        RegionCell cell = world != null ? cellAt(world.getUID(), chunkKey) : null;
+        return cell != null ? cell.stamp() : 0L;
+    }
 
-        Direction(int xOffset, int zOffset, int[] yCandidates) {
-            this.xOffset = xOffset;
-            this.zOffset = zOffset;
-            this.yCandidates = yCandidates;
-        }
+    public int getCachedPenInfoCount() {
+        return cachedPenInfo.size();
+    }
+
+    public int getRegionCount() {
+        return regions.size();
     }
 
-    private static class BlockPos {
-        private final int x;
-        private final int y;
-        private final int z;
+    /**
+     * Walkability check for Folia that refuses to read chunks owned by another region and remembers that it had to.
+     * Ownership is looked up once per chunk column change, which flood fills rarely cross.
+     */
+    private final class OwnedWalkability implements PenFloodFill.Walkability {
+        private final PenBlockCache blocks;
+        private long lastChunk = Long.MIN_VALUE;
+        private boolean lastOwned;
+        private boolean foreign;
 
-        private BlockPos(int x, int y, int z) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
+        private OwnedWalkability(PenBlockCache blocks) {
+            this.blocks = blocks;
         }
 
         @Override
-        public boolean equals(Object obj) {
-            if (this == obj) {
-                return true;
+        public boolean isWalkable(int x, int y, int z) {
+            long chunk = BlockKeys.chunk(x >> 4, z >> 4);
+            if (chunk != lastChunk) {
+                lastChunk = chunk;
+                lastOwned = platform.owns(blocks.getWorld(), x >> 4, z >> 4);
             }
-            if (!(obj instanceof BlockPos)) {
+            if (!lastOwned) {
+                foreign = true;
                 return false;
             }
-            BlockPos other = (BlockPos) obj;
-            return x == other.x && y == other.y && z == other.z;
+            return blocks.isWalkable(x, y, z);
         }
-
-        @Override
-        public int hashCode() {
-            int result = x;
-            result = 31 * result + y;
-            result = 31 * result + z;
-            return result;
-        }
-    }
-
-    public boolean isEntityInPen(LivingEntity entity) {
-        return getPenStatus(entity) != PenStatus.WILD;
     }
 
-    public PenStatus getPenStatus(LivingEntity entity) {
-        return getPenInfo(entity).getStatus();
+    /**
+     * Last detected pen info of an animal without triggering a detection, or {@code null} if it was never scanned.
+     * Safe to call from any thread.
+     */
+    public PenInfo getCachedPenInfo(UUID entityId) {
+        return cachedPenInfo.get(entityId);
     }
 
-    public PenInfo getPenInfo(LivingEntity entity) {
-        if (!trackedTypes.contains(entity.getType())) {
+    /**
+     * Pen info for paths that must not run a flood fill: player interactions, trough cycles and the hunger tick.
+     * Returns the cached result; on a miss it queues a detection and answers provisionally with the known pen region
+     * the animal stands in, or {@code null} when there is none.
+     */
+    public PenInfo lookupPenInfo(LivingEntity entity) {
+        if (!detection.settings().entities().contains(entity.getType())) {
             return new PenInfo(PenStatus.WILD, null, 0, 0);
         }
         PenInfo cached = cachedPenInfo.get(entity.getUniqueId());
         if (cached != null) {
+            profiler.count(Profiler.Counter.PEN_CACHE_HIT);
             return cached;
         }
-        PenInfo detected = detectPen(entity);
-        cachedPenInfo.put(entity.getUniqueId(), detected);
-        return detected;
+        profiler.count(Profiler.Counter.PEN_CACHE_MISS);
+        queueDetection(entity, null, false);
+        Location location = entity.getLocation();
+        PenRegion region = findRegion(location.getWorld(), location.getX(), location.getY(), location.getZ());
+        return region != null ? new PenInfo(region.getStatus(), null, 0, 0, region) : null;
+    }
+
+    /**
+     * Calls {@code callback} with the animal's pen once it is known: right away when cached, otherwise from the
+     * request job, which the governor never defers, on the thread owning the animal. The callback receives
+     * {@code null} if the animal was removed before then.
+     */
+    public void requestPenInfo(LivingEntity entity, Consumer<PenInfo> callback) {
+        PenInfo cached = detection.settings().entities().contains(entity.getType())
+            ? cachedPenInfo.get(entity.getUniqueId()) : new PenInfo(PenStatus.WILD, null, 0, 0);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+        queueDetection(entity, callback, false);
     }
 }
@@ -1,99 +1,145 @@
 package com.yourname.animalcare.manager;
 
+import com.yourname.animalcare.config.AnimalCareSettings.TroughSettings;
+import com.yourname.animalcare.core.ConsumptionPlanner;
+import com.yourname.animalcare.core.FeedAllocator;
+import com.yourname.animalcare.core.FeedScheduler;
+import com.yourname.animalcare.core.HungerMath;
+import com.yourname.animalcare.core.PhaseScheduler;
+import com.yourname.animalcare.core.TickBudgetGovernor;
+import com.yourname.animalcare.stats.ConsumptionPlanEvent;
+import com.yourname.animalcare.stats.Profiler;
+import com.yourname.animalcare.stats.TroughCycleEvent;
+import com.yourname.animalcare.util.BlockKeys;
+import com.yourname.animalcare.util.LongObjectMap;
+import com.yourname.animalcare.util.ServerPlatform;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.Container;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.Openable;
 import org.bukkit.block.data.type.Barrel;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry and feeding cycle of all troughs. There is no manager-wide lock: each {@link TroughWorld} guards its own
+ * maps, the {@link FeedScheduler} instance guards the wheel, and each trough guards its pen binding and lid state.
+ * Locks are held only around registry reads and writes, never around block, inventory or entity work, so on Folia
+ * the feeding cycles of different regions run in parallel. Nested locks are taken in the order world, trough,
+ * scheduler. Readers on any thread use {@link #getSnapshot()} and the count getters.
+ */
 public class TroughManager {
 
-    private final JavaPlugin plugin;
     private final HungerManager hungerManager;
     private final PenDetectionService penDetectionService;
-    private final Set<Material> troughBlocks;
-    private final Set<Material> feedItems;
-    private final Map<Material, Integer> feedEnergy;
-    private final double feedRadius;
-    private final long feedIntervalTicks;
-    private final int maxFeedsPerCycle;
-    private final String troughNameTag;
+    private final Profiler profiler;
+    private final TickBudgetGovernor governor;
+    private final ServerPlatform platform;
+    private volatile TroughSettings settings;
 
     private static final BlockFace[] HORIZONTAL_FACES = {BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST};
 
-    private final Set<Location> activeTroughs = new HashSet<>();
-    private final Map<Location, DoubleBarrelTrough> doubleBarrelTroughs = new HashMap<>();
-    private BukkitTask task;
-    private long nextFeedRunMillis;
-
-    public TroughManager(JavaPlugin plugin, HungerManager hungerManager, PenDetectionService penDetectionService,
-                         FileConfiguration config, Map<Material, Integer> feedEnergy) {
-        this.plugin = plugin;
+    private final Map<UUID, TroughWorld> troughWorlds = new ConcurrentHashMap<>();
+    private final FeedScheduler<TroughState> feedScheduler;
+    private final Set<DoubleBarrelTrough> pendingLids = ConcurrentHashMap.newKeySet();
+    private final Map<PenDetectionService.PenRegion, Set<TroughState>> troughsByRegion = new ConcurrentHashMap<>();
+    private final AtomicInteger activeTroughCount = new AtomicInteger();
+    private volatile boolean registryChanged;
+    private volatile TroughSnapshot snapshot = TroughSnapshot.EMPTY;
+    private volatile int scheduledTroughCount;
+    private PhaseScheduler scheduler;
+    private PhaseScheduler.Job job;
+
+    public TroughManager(HungerManager hungerManager, PenDetectionService penDetectionService,
+                         TroughSettings settings, Profiler profiler, TickBudgetGovernor governor,
+                         ServerPlatform platform) {
+        this.profiler = profiler;
+        this.governor = governor;
+        this.platform = platform;
         this.hungerManager = hungerManager;
         this.penDetectionService = penDetectionService;
-        ConfigurationSection troughSection = config.getConfigurationSection("trough");
-        this.troughBlocks = loadMaterials(troughSection != null ? troughSection.getStringList("blocks") : Arrays.asList("BARREL"));
-        this.feedEnergy = Collections.unmodifiableMap(new HashMap<>(feedEnergy));
-        Set<Material> configuredFeedItems = loadMaterials(troughSection != null ? troughSection.getStringList("feed-items") : Collections.emptyList());
-        if (configuredFeedItems.isEmpty() && !this.feedEnergy.isEmpty()) {
-            configuredFeedItems = new HashSet<>(this.feedEnergy.keySet());
-        }
-        Set<Material> validFeedItems = new HashSet<>();
-        for (Material material : configuredFeedItems) {
-            if (!this.feedEnergy.containsKey(material)) {
-                plugin.getLogger().warning("Feed item " + material + " has no configured energy and will be ignored.");
-                continue;
+        this.settings = settings;
+        this.feedScheduler = new FeedScheduler<>(settings.feedIntervalTicks(),
+            state -> isBoundToPen(state) ? state.region.getAnchorKey() : state.key);
+    }
+
+    /**
+     * Swaps in reloaded settings. Container and plan caches are dropped only when trough blocks, the name tag or
+     * feed energies changed, pen bindings only when pen binding was switched, and the scheduled troughs move to
+     * their new phases only when the feed interval changed.
+     */
+    public void applySettings(TroughSettings next) {
+        TroughSettings previous = settings;
+        settings = next;
+        if (!next.blocks().equals(previous.blocks()) || !Objects.equals(next.nameTag(), previous.nameTag())
+                || !next.feedEnergy().equals(previous.feedEnergy())) {
+            for (TroughWorld world : troughWorlds.values()) {
+                synchronized (world) {
+                    world.containers.clear();
+                }
             }
-            validFeedItems.add(material);
         }
-        if (validFeedItems.isEmpty() && !this.feedEnergy.isEmpty()) {
-            if (!configuredFeedItems.isEmpty()) {
-                plugin.getLogger().warning("No trough feed items matched configured energy values; "
-                    + "falling back to all configured feedable items.");
+        if (!next.blocks().equals(previous.blocks()) || !Objects.equals(next.nameTag(), previous.nameTag())) {
+            for (TroughWorld world : troughWorlds.values()) {
+                synchronized (world) {
+                    world.knownTroughs.clear();
+                }
+            }
+            indexLoadedChunks();
+        }
+        if (next.penBound() != previous.penBound()) {
+            for (Set<TroughState> bound : troughsByRegion.values()) {
+                for (TroughState state : bound) {
+                    unbindRegion(state);
+                }
+            }
+        }
+        if (next.feedIntervalTicks() != previous.feedIntervalTicks()) {
+            List<TroughState> states = new ArrayList<>();
+            for (TroughWorld world : troughWorlds.values()) {
+                synchronized (world) {
+                    states.addAll(world.troughs.values());
+                }
+            }
+            synchronized (feedScheduler) {
+                feedScheduler.setInterval(next.feedIntervalTicks(), states);
             }
-            validFeedItems.addAll(this.feedEnergy.keySet());
         }
-        this.feedItems = Collections.unmodifiableSet(validFeedItems);
-        this.feedRadius = troughSection != null ? troughSection.getDouble("radius", 6.0D) : 6.0D;
-        this.feedIntervalTicks = troughSection != null ? troughSection.getLong("feed-interval-ticks", 20L * 10L) : 20L * 10L;
-        this.maxFeedsPerCycle = troughSection != null ? troughSection.getInt("max-feed-per-cycle", 3) : 3;
-        this.troughNameTag = troughSection != null ? troughSection.getString("name-tag", "[Trough]") : "[Trough]";
-        this.nextFeedRunMillis = System.currentTimeMillis() + ticksToMillis(feedIntervalTicks);
     }
 
-    private int consumeFromInventory(Inventory inventory, int requiredEnergy) {
+    private int consumeFromInventory(Inventory inventory, int requiredEnergy, ConsumptionPlanner.Memo cache) {
         if (inventory == null || requiredEnergy <= 0) {
             return 0;
         }
-        ConsumptionPlan plan = planConsumption(inventory, requiredEnergy);
+        ConsumptionPlan plan = planConsumption(inventory, requiredEnergy, cache);
         if (plan == null || plan.totalEnergy() <= 0) {
             return 0;
         }
@@ -101,96 +147,61 @@ public class TroughManager {
         return plan.totalEnergy();
     }
 
-    private ConsumptionPlan planConsumption(Inventory inventory, int requiredEnergy) {
-        List<SlotInfo> slots = new ArrayList<>();
-        for (int slot = 0; slot < inventory.getSize(); slot++) {
-            ItemStack stack = inventory.getItem(slot);
+    private int inventoryEnergy(Inventory inventory) {
+        if (inventory == null) {
+            return 0;
+        }
+        Map<Material, Integer> feedEnergy = settings.feedEnergy();
+        int total = 0;
+        for (ItemStack stack : inventory.getContents()) {
             if (stack == null) {
                 continue;
             }
-            Material type = stack.getType();
-            if (!isFeedEnergyItem(type)) {
-                continue;
-            }
-            Integer energy = feedEnergy.get(type);
-            if (energy == null || energy <= 0) {
-                continue;
-            }
-            int available = stack.getAmount();
-            if (available <= 0) {
-                continue;
-            }
-            if (energy > requiredEnergy) {
-                continue;
-            }
-            int maxUse = Math.min(available, requiredEnergy / energy);
-            if (maxUse <= 0) {
-                continue;
-            }
-            slots.add(new SlotInfo(slot, energy, maxUse));
-        }
-        if (slots.isEmpty()) {
-            return null;
-        }
-        int[] previous = new int[requiredEnergy + 1];
-        int[] usedSlot = new int[requiredEnergy + 1];
-        int[] usedCount = new int[requiredEnergy + 1];
-        Arrays.fill(previous, -1);
-        Arrays.fill(usedSlot, -1);
-        Arrays.fill(usedCount, 0);
-        previous[0] = 0;
-
-        for (SlotInfo slot : slots) {
-            for (int energy = requiredEnergy; energy >= 0; energy--) {
-                if (previous[energy] == -1) {
-                    continue;
-                }
-                for (int count = 1; count <= slot.maxUse(); count++) {
-                    int next = energy + count * slot.energy();
-                    if (next > requiredEnergy) {
-                        break;
-                    }
-                    if (previous[next] != -1) {
-                        continue;
-                    }
-                    previous[next] = energy;
-                    usedSlot[next] = slot.index();
-                    usedCount[next] = count;
-                }
+            Integer energy = feedEnergy.get(stack.getType());
+            if (energy != null && energy > 0) {
+                total += energy * stack.getAmount();
             }
         }
+        return total;
+    }
 
-        int target = 0;
-        for (int energy = requiredEnergy; energy > 0; energy--) {
-            if (previous[energy] != -1) {
-                target = energy;
-                break;
-            }
-        }
-        if (target <= 0) {
-            return null;
-        }
+    /**
+     * Plans the largest combination of feed items that does not exceed {@code requiredEnergy}. The planner table is
+     * kept in the container's {@link ConsumptionPlanner.Memo}, so while a trough only gets emptied the next request
+     * walks the old table back instead of planning again.
+     */
+    private ConsumptionPlan planConsumption(Inventory inventory, int requiredEnergy, ConsumptionPlanner.Memo cache) {
+        ConsumptionPlanEvent event = new ConsumptionPlanEvent();
+        event.begin();
+        long started = profiler.start();
+        ConsumptionPlanner.Plan plan = cache.plan(feedSlots(inventory), requiredEnergy);
+        boolean cacheHit = cache.lastHit();
+        profiler.count(cacheHit ? Profiler.Counter.PLAN_CACHE_HIT : Profiler.Counter.PLAN_CACHE_MISS);
+        profiler.stop(Profiler.Section.PLANNER, started);
+        if (event.shouldCommit()) {
+            event.requestedEnergy = requiredEnergy;
+            event.plannedEnergy = plan != null ? plan.totalEnergy() : 0;
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+        return plan != null ? new ConsumptionPlan(plan.slotUsage(), plan.totalEnergy()) : null;
+    }
 
-        Map<Integer, Integer> usage = new HashMap<>();
-        int cursor = target;
-        while (cursor > 0) {
-            int slotIndex = usedSlot[cursor];
-            int count = usedCount[cursor];
-            if (slotIndex < 0 || count <= 0) {
-                break;
+    private List<ConsumptionPlanner.Slot> feedSlots(Inventory inventory) {
+        Map<Material, Integer> feedEnergy = settings.feedEnergy();
+        List<ConsumptionPlanner.Slot> slots = new ArrayList<>();
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            ItemStack stack = inventory.getItem(slot);
+            if (stack == null) {
+                continue;
             }
-            usage.merge(slotIndex, count, Integer::sum);
-            cursor = previous[cursor];
-        }
-
-        if (usage.isEmpty()) {
-            return null;
+            Integer energy = feedEnergy.get(stack.getType());
+            if (energy == null || energy <= 0 || stack.getAmount() <= 0) {
+                continue;
+            }
+            slots.add(new ConsumptionPlanner.Slot(slot, energy, stack.getAmount()));
         }
-
-        return new ConsumptionPlan(usage, target);
-    }
-
-    private record SlotInfo(int index, int energy, int maxUse) {
+        return slots;
     }
 
     private record ConsumptionPlan(Map<Integer, Integer> slotUsage, int totalEnergy) {
@@ -214,77 +225,111 @@ public class TroughManager {
         }
     }
 
-    private Set<Material> loadMaterials(Iterable<String> values) {
-        if (values == null) {
-            return Collections.emptySet();
+    public synchronized void start(PhaseScheduler scheduler) {
+        if (job != null) {
+            this.scheduler.cancel(job);
         }
-        Set<Material> set = new HashSet<>();
-        for (String value : values) {
-            Material material = resolveMaterial(value);
-            if (material != null) {
-                set.add(material);
-            } else {
-                plugin.getLogger().warning("Unknown material in trough configuration: " + value);
-            }
-        }
-        return Collections.unmodifiableSet(set);
+        this.scheduler = scheduler;
+        this.job = scheduler.schedule("trough feeding", 1L, this::tick);
     }
 
-    private Material resolveMaterial(String value) {
-        if (value == null) {
-            return null;
+    public synchronized void stop() {
+        if (job != null) {
+            scheduler.cancel(job);
+            job = null;
         }
-        String trimmed = value.trim();
-        if (trimmed.isEmpty()) {
-            return null;
+        if (!platform.isRegionThreaded()) {
+            // Region tasks can no longer be scheduled while the plugin shuts down.
+            flushLids();
         }
-
-        Material material = Material.matchMaterial(trimmed, true);
-        if (material != null) {
-            return material;
+        troughWorlds.clear();
+        troughsByRegion.clear();
+        activeTroughCount.set(0);
+        synchronized (feedScheduler) {
+            feedScheduler.clear();
         }
+        snapshot = TroughSnapshot.EMPTY;
+        scheduledTroughCount = 0;
+    }
 
-        String upper = trimmed.toUpperCase(Locale.ROOT);
-        if ("GRASS".equals(upper)) {
-            return Material.SHORT_GRASS;
-        }
+    private long ticksToMillis(long ticks) {
+        return Math.max(0L, ticks) * 50L;
+    }
 
-        return Material.matchMaterial(upper);
+    /**
+     * Registry state as of the end of the last tick. Safe to call from any thread.
+     */
+    public TroughSnapshot getSnapshot() {
+        return snapshot;
     }
 
-    public void start() {
-        if (task != null) {
-            task.cancel();
-        }
-        task = Bukkit.getScheduler().runTaskTimer(plugin, this::processTroughs, feedIntervalTicks, feedIntervalTicks);
-        nextFeedRunMillis = System.currentTimeMillis() + ticksToMillis(feedIntervalTicks);
+    public int getActiveTroughCount() {
+        return snapshot.getActiveCount();
     }
 
-    public void stop() {
-        if (task != null) {
-            task.cancel();
-            task = null;
-        }
-        activeTroughs.clear();
+    public int getScheduledTroughCount() {
+        return scheduledTroughCount;
     }
 
-    private long ticksToMillis(long ticks) {
-        return Math.max(0L, ticks) * 50L;
+    public int getKnownTroughCount() {
+        return snapshot.getKnownCount();
+    }
+
+    public int getDoubleBarrelCount() {
+        return snapshot.getDoubleBarrelCount();
+    }
+
+    /**
+     * Copies the registry into a new {@link TroughSnapshot} if anything changed since the last one.
+     */
+    private void publishSnapshot() {
+        synchronized (feedScheduler) {
+            scheduledTroughCount = feedScheduler.size();
+        }
+        if (!registryChanged) {
+            return;
+        }
+        registryChanged = false;
+        Map<UUID, long[]> active = new HashMap<>();
+        int known = 0;
+        int halves = 0;
+        for (Map.Entry<UUID, TroughWorld> entry : troughWorlds.entrySet()) {
+            TroughWorld world = entry.getValue();
+            long[] keys;
+            synchronized (world) {
+                known += world.troughs.size();
+                halves += world.doubleBarrels.size();
+                int count = 0;
+                for (TroughChunk bucket : world.chunks.values()) {
+                    count += bucket.troughs.size();
+                }
+                keys = new long[count];
+                int index = 0;
+                for (TroughChunk bucket : world.chunks.values()) {
+                    for (TroughState state : bucket.troughs) {
+                        keys[index++] = state.key;
+                    }
+                }
+            }
+            Arrays.sort(keys);
+            active.put(entry.getKey(), keys);
+        }
+        snapshot = new TroughSnapshot(active, known, halves / 2);
     }
 
     public boolean isTroughBlock(Material material) {
-        return troughBlocks.contains(material);
+        return settings.blocks().contains(material);
     }
 
     public boolean isFeedItem(Material material) {
-        if (!feedEnergy.containsKey(material)) {
+        if (!settings.feedEnergy().containsKey(material)) {
             return false;
         }
-        return feedItems.isEmpty() || feedItems.contains(material);
+        return settings.feedItems().isEmpty() || settings.feedItems().contains(material);
     }
 
     private boolean isFeedEnergyItem(Material material) {
-        return feedEnergy.containsKey(material);
+        return settings.feedEnergy().containsKey(material);
     }
 
     public FillResult handleTroughInteract(Player player, Block block, EquipmentSlot hand) {
@@ -293,8 +338,11 @@ public class TroughManager {
             return FillResult.NOT_TROUGH;
         }
         if (storage instanceof DoubleBarrelTrough doubleBarrel) {
-            doubleBarrel.ensureOpen();
-            activeTroughs.add(storage.getKeyLocation());
+            // Opening the barrel UI animates the lids, so re-assert the stocked state once the view is gone.
+            doubleBarrel.refreshLid();
+            TroughState state = stateFor(storage.getKeyLocation());
+            markActive(state);
+            wake(state);
             return FillResult.NOT_FEED_ITEM;
         }
         ItemStack held = player.getInventory().getItem(hand);
@@ -314,95 +362,823 @@ public class TroughManager {
                 held.setAmount(amount);
             }
         }
-        activeTroughs.add(storage.getKeyLocation());
-        feedNearby(storage);
+        TroughState state = stateFor(storage.getKeyLocation());
+        markActive(state);
+        wake(state);
+        CycleTally tally = new CycleTally();
+        allocateFeed(List.of(new FeedSource(state, storage, 1)), tally);
+        profiler.count(Profiler.Counter.ANIMALS_FED, tally.fed);
         return FillResult.ADDED;
     }
 
     public void deactivate(Location location) {
-        Location key = location.getBlock().getLocation();
-        DoubleBarrelTrough trough = doubleBarrelTroughs.remove(key);
+        TroughWorld world = findWorld(location.getWorld());
+        if (world == null) {
+            return;
+        }
+        long key = BlockKeys.block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        DoubleBarrelTrough trough;
+        synchronized (world) {
+            forgetTroughBlock(world, key);
+            trough = world.doubleBarrels.get(key);
+        }
         if (trough != null) {
             removeDoubleBarrelTrough(trough);
-            activeTroughs.remove(trough.getKeyLocation());
+            key = trough.getPrimaryKey();
+        }
+        TroughState state;
+        synchronized (world) {
+            state = world.troughs.get(key);
+        }
+        if (state != null) {
+            markInactive(state);
+        }
+    }
+
+    public void handleChunkUnload(Chunk chunk) {
+        TroughWorld world = findWorld(chunk.getWorld());
+        if (world == null) {
             return;
         }
-        activeTroughs.remove(key);
+        long chunkKey = BlockKeys.chunk(chunk.getX(), chunk.getZ());
+        synchronized (world) {
+            world.containers.remove(chunkKey);
+            world.knownTroughs.remove(chunkKey);
+            TroughChunk bucket = world.chunks.get(chunkKey);
+            if (bucket == null || bucket.dormant) {
+                return;
+            }
+            bucket.dormant = true;
+            bucket.dormantSinceMillis = System.currentTimeMillis();
+            bucket.catchUpCycles = 0;
+            synchronized (feedScheduler) {
+                for (TroughState state : bucket.troughs) {
+                    feedScheduler.cancel(state);
+                }
+            }
+        }
     }
 
-    private void processTroughs() {
-        Set<Location> toProcess = new HashSet<>(activeTroughs);
-        for (DoubleBarrelTrough trough : new HashSet<>(doubleBarrelTroughs.values())) {
-            if (trough.hasFeed()) {
-                toProcess.add(trough.getKeyLocation());
+    public void handleChunkLoad(Chunk chunk) {
+        indexChunk(chunk);
+        TroughWorld world = findWorld(chunk.getWorld());
+        if (world == null) {
+            return;
+        }
+        synchronized (world) {
+            TroughChunk bucket = world.chunks.get(BlockKeys.chunk(chunk.getX(), chunk.getZ()));
+            if (bucket == null || !bucket.dormant) {
+                return;
+            }
+            bucket.dormant = false;
+            long intervalMillis = ticksToMillis(settings.feedIntervalTicks());
+            long missedCycles = intervalMillis > 0L
+                ? (System.currentTimeMillis() - bucket.dormantSinceMillis) / intervalMillis
+                : 0L;
+            bucket.catchUpCycles = (int) Math.min(settings.maxCatchUpCycles(), Math.max(0L, missedCycles));
+            for (TroughState state : bucket.troughs) {
+                wake(state);
             }
         }
+    }
 
-        for (Location location : toProcess) {
-            Block block = location.getBlock();
-            if (block == null) {
-                activeTroughs.remove(location);
+    /**
+     * Indexes the troughs of every chunk that is already loaded, on the thread owning each chunk. Used on enable and
+     * when the trough blocks or name tag change; chunks loaded later are indexed by {@link #handleChunkLoad}.
+     */
+    public void indexLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            Chunk[] chunks;
+            try {
+                chunks = world.getLoadedChunks();
+            } catch (RuntimeException ex) {
+                // Folia may refuse world-wide chunk access outside region threads; chunk loads fill the gap.
                 continue;
             }
-            TroughStorage storage = resolveTrough(block);
-            if (storage == null) {
-                activeTroughs.remove(location);
-                continue;
+            for (Chunk chunk : chunks) {
+                platform.execute(new Location(world, chunk.getX() << 4, 0, chunk.getZ() << 4),
+                    () -> indexChunk(chunk));
             }
-            if (!storage.hasFeed()) {
-                activeTroughs.remove(storage.getKeyLocation());
-                continue;
+        }
+    }
+
+    /**
+     * Remembers every trough in a loaded chunk: named trough containers and barrels with exactly one barrel next to
+     * them. Barrels whose neighbours lie in a chunk that is not loaded are left to that chunk's own load, which
+     * indexes both halves of the pair.
+     */
+    private void indexChunk(Chunk chunk) {
+        if (!chunk.isLoaded()) {
+            return;
+        }
+        Map<Long, Long> found = new HashMap<>();
+        for (BlockState blockState : chunk.getTileEntities()) {
+            if (blockState instanceof Container container) {
+                classifyTrough(container, found);
             }
-            feedNearby(storage);
-            if (storage.hasFeed()) {
-                activeTroughs.add(storage.getKeyLocation());
-            } else {
-                activeTroughs.remove(storage.getKeyLocation());
+        }
+        if (found.isEmpty()) {
+            return;
+        }
+        TroughWorld world = troughWorlds.computeIfAbsent(chunk.getWorld().getUID(), id -> new TroughWorld());
+        indexTroughs(world, found);
+    }
+
+    /**
+     * Indexes a container placed by a player, including one renamed in an anvil or completing a double barrel.
+     */
+    public void handleTroughPlaced(Block block) {
+        if (!(block.getState() instanceof Container container)) {
+            return;
+        }
+        Map<Long, Long> found = new HashMap<>();
+        classifyTrough(container, found);
+        if (!found.isEmpty()) {
+            indexTroughs(troughWorlds.computeIfAbsent(block.getWorld().getUID(), id -> new TroughWorld()), found);
+        }
+    }
+
+    /**
+     * Adds the container's block key to {@code found}, mapped to the key its trough state lives under: the primary
+     * half for a double barrel, the block itself otherwise. Mirrors {@link #resolveTrough} without caching anything.
+     */
+    private void classifyTrough(Container container, Map<Long, Long> found) {
+        Block block = container.getBlock();
+        Material type = container.getType();
+        long key = BlockKeys.block(block.getX(), block.getY(), block.getZ());
+        if (type == Material.BARREL) {
+            if (!neighboursLoaded(block)) {
+                return;
             }
+            Block adjacent = findAdjacentBarrel(block);
+            if (adjacent != null) {
+                long other = BlockKeys.block(adjacent.getX(), adjacent.getY(), adjacent.getZ());
+                long primary = compareLocations(block.getLocation(), adjacent.getLocation()) <= 0 ? key : other;
+                found.put(key, primary);
+                found.put(other, primary);
+                return;
+            }
+        }
+        if ((settings.blocks().contains(type) || type == Material.BARREL) && isNamedTrough(container)) {
+            found.put(key, key);
         }
-        nextFeedRunMillis = System.currentTimeMillis() + ticksToMillis(feedIntervalTicks);
     }
 
-    private void feedNearby(TroughStorage storage) {
-        Location middle = storage.getCenterLocation();
-        if (middle.getWorld() == null) {
+    private boolean neighboursLoaded(Block block) {
+        World world = block.getWorld();
+        for (BlockFace face : HORIZONTAL_FACES) {
+            int chunkX = (block.getX() + face.getModX()) >> 4;
+            int chunkZ = (block.getZ() + face.getModZ()) >> 4;
+            if (!world.isChunkLoaded(chunkX, chunkZ) || !platform.owns(world, chunkX, chunkZ)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexTroughs(TroughWorld world, Map<Long, Long> found) {
+        synchronized (world) {
+            for (Map.Entry<Long, Long> entry : found.entrySet()) {
+                long chunkKey = BlockKeys.chunkOfBlock(entry.getKey());
+                LongObjectMap<Long> chunkTroughs = world.knownTroughs.get(chunkKey);
+                if (chunkTroughs == null) {
+                    chunkTroughs = new LongObjectMap<>();
+                    world.knownTroughs.put(chunkKey, chunkTroughs);
+                }
+                chunkTroughs.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private Long knownTroughKey(TroughWorld world, long blockKey) {
+        LongObjectMap<Long> chunkTroughs = world.knownTroughs.get(BlockKeys.chunkOfBlock(blockKey));
+        return chunkTroughs != null ? chunkTroughs.get(blockKey) : null;
+    }
+
+    /**
+     * Drops a broken or exploded block from the index together with the other half of its double barrel. Callers
+     * hold the world lock.
+     */
+    private void forgetTroughBlock(TroughWorld world, long blockKey) {
+        Long troughKey = knownTroughKey(world, blockKey);
+        if (troughKey == null) {
             return;
         }
-        int fed = 0;
-        for (Entity entity : middle.getWorld().getNearbyEntities(middle, feedRadius, feedRadius, feedRadius)) {
-            if (fed >= maxFeedsPerCycle) {
-                break;
+        unindexTroughBlock(world, blockKey);
+        int x = BlockKeys.blockX(blockKey);
+        int y = BlockKeys.blockY(blockKey);
+        int z = BlockKeys.blockZ(blockKey);
+        for (BlockFace face : HORIZONTAL_FACES) {
+            long neighbour = BlockKeys.block(x + face.getModX(), y, z + face.getModZ());
+            if (troughKey.equals(knownTroughKey(world, neighbour))) {
+                unindexTroughBlock(world, neighbour);
             }
-            if (!(entity instanceof LivingEntity living)) {
-                continue;
+        }
+    }
+
+    private void unindexTroughBlock(TroughWorld world, long blockKey) {
+        long chunkKey = BlockKeys.chunkOfBlock(blockKey);
+        LongObjectMap<Long> chunkTroughs = world.knownTroughs.get(chunkKey);
+        if (chunkTroughs != null) {
+            chunkTroughs.remove(blockKey);
+            if (chunkTroughs.isEmpty()) {
+                world.knownTroughs.remove(chunkKey);
             }
-            if (!hungerManager.isManagedEntity(living)) {
-                continue;
+        }
+    }
+
+    /**
+     * Drops the registry of an unloading world, so its troughs, buckets and barrel pairs no longer keep the world
+     * alive. A world loaded again starts with an empty registry like after a restart.
+     */
+    public void handleWorldUnload(World world) {
+        TroughWorld removed = troughWorlds.remove(world.getUID());
+        if (removed == null) {
+            return;
+        }
+        synchronized (removed) {
+            for (TroughState state : removed.troughs.values()) {
+                synchronized (feedScheduler) {
+                    feedScheduler.cancel(state);
+                }
+                unbindRegion(state);
+                if (state.active) {
+                    activeTroughCount.decrementAndGet();
+                }
             }
-            if (penDetectionService.getPenStatus(living) == PenDetectionService.PenStatus.WILD) {
+            pendingLids.removeIf(trough -> removed.doubleBarrels.get(trough.getPrimaryKey()) == trough);
+        }
+        registryChanged = true;
+    }
+
+    /**
+     * Called whenever the hunger tick updates a penned animal. Animals below the demand threshold wake every
+     * stocked trough in range; troughs nobody asks for stay asleep and cost nothing per tick.
+     */
+    public void handleHungerUpdate(LivingEntity entity, int hunger) {
+        if (hunger >= settings.demandThreshold() || activeTroughCount.get() == 0) {
+            return;
+        }
+        Location location = entity.getLocation();
+        TroughWorld world = findWorld(location.getWorld());
+        if (world == null) {
+            return;
+        }
+        if (settings.penBound()) {
+            PenDetectionService.PenInfo penInfo = penDetectionService.lookupPenInfo(entity);
+            PenDetectionService.PenRegion region = penInfo != null ? penInfo.getRegion() : null;
+            Set<TroughState> bound = region != null ? troughsByRegion.get(region) : null;
+            if (bound != null) {
+                for (TroughState state : bound) {
+                    if (isChunkLoaded(state.location)) {
+                        wake(state);
+                    }
+                }
+            }
+        }
+        int reach = (int) Math.ceil(settings.radius()) + 1;
+        int minChunkX = (location.getBlockX() - reach) >> 4;
+        int maxChunkX = (location.getBlockX() + reach) >> 4;
+        int minChunkZ = (location.getBlockZ() - reach) >> 4;
+        int maxChunkZ = (location.getBlockZ() + reach) >> 4;
+        synchronized (world) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    TroughChunk bucket = world.chunks.get(BlockKeys.chunk(chunkX, chunkZ));
+                    if (bucket == null || bucket.dormant) {
+                        continue;
+                    }
+                    for (TroughState state : bucket.troughs) {
+                        if (isBoundToPen(state)) {
+                            continue;
+                        }
+                        if (isInFeedRange(centerOf(state), location)) {
+                            wake(state);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isBoundToPen(TroughState state) {
+        if (state.region == null) {
+            return false;
+        }
+        long version = penDetectionService.getRegionVersion(state.location.getWorld(), state.regionChunk);
+        return state.regionVersion == version;
+    }
+
+    /**
+     * Returns the pen the trough feeds, or {@code null} when it sits outside every known pen and falls back to the
+     * radius search. The lookup is repeated only after pens reaching into the trough's chunk appeared or
+     * disappeared.
+     */
+    private PenDetectionService.PenRegion regionOf(TroughState state, Location center) {
+        if (!settings.penBound()) {
+            return null;
+        }
+        long chunk = PenDetectionService.chunkKeyAt(center.getX(), center.getZ());
+        long version = penDetectionService.getRegionVersion(center.getWorld(), chunk);
+        synchronized (state) {
+            if (state.regionVersion == version && state.regionChunk == chunk) {
+                return state.region;
+            }
+            PenDetectionService.PenRegion region = penDetectionService.findRegion(center.getWorld(),
+                center.getX(), center.getY(), center.getZ());
+            if (region != state.region) {
+                unbindRegion(state);
+                if (region != null) {
+                    troughsByRegion.compute(region, (key, bound) -> {
+                        Set<TroughState> troughs = bound != null ? bound : ConcurrentHashMap.newKeySet();
+                        troughs.add(state);
+                        return troughs;
+                    });
+                }
+                state.region = region;
+            }
+            state.regionChunk = chunk;
+            state.regionVersion = version;
+            return region;
+        }
+    }
+
+    private void unbindRegion(TroughState state) {
+        synchronized (state) {
+            PenDetectionService.PenRegion region = state.region;
+            if (region != null) {
+                troughsByRegion.computeIfPresent(region, (key, bound) -> {
+                    bound.remove(state);
+                    return bound.isEmpty() ? null : bound;
+                });
+                state.region = null;
+            }
+            state.regionVersion = -1L;
+        }
+    }
+
+    /**
+     * Animals a trough may feed: the members of its pen, or everything within {@code feedRadius} for troughs
+     * outside any pen. Callers still filter by management and pen status.
+     */
+    private Collection<? extends Entity> feedCandidates(TroughState state, Location middle) {
+        PenDetectionService.PenRegion region;
+        if (state != null && state.active) {
+            region = regionOf(state, middle);
+        } else {
+            region = settings.penBound()
+                ? penDetectionService.findRegion(middle.getWorld(), middle.getX(), middle.getY(), middle.getZ())
+                : null;
+        }
+        if (region != null) {
+            region.pruneInvalidMembers();
+            return region.getMembers();
+        }
+        double radius = settings.radius();
+        return middle.getWorld().getNearbyEntities(middle, radius, radius, radius);
+    }
+
+    private boolean isInFeedRange(Location center, Location target) {
+        double radius = settings.radius();
+        return Math.abs(center.getX() - target.getX()) <= radius
+            && Math.abs(center.getY() - target.getY()) <= radius
+            && Math.abs(center.getZ() - target.getZ()) <= radius;
+    }
+
+    private Location centerOf(TroughState state) {
+        DoubleBarrelTrough pair;
+        synchronized (state.world) {
+            pair = state.world.doubleBarrels.get(state.key);
+        }
+        if (pair != null) {
+            return pair.getCenterLocation();
+        }
+        return state.location.clone().add(0.5, 0.5, 0.5);
+    }
+
+    private void tick() {
+        List<TroughState> due;
+        synchronized (feedScheduler) {
+            due = feedScheduler.advance();
+        }
+        if (!due.isEmpty()) {
+            if (platform.isRegionThreaded()) {
+                dispatchDue(due);
+            } else {
+                runCycle(due);
+            }
+        }
+        flushLids();
+        publishSnapshot();
+    }
+
+    /**
+     * Folia: hands each group of due troughs to the region owning its first trough. Troughs of one pen stay together
+     * so they are still allocated as a group.
+     */
+    private void dispatchDue(List<TroughState> due) {
+        Map<Object, List<TroughState>> groups = new LinkedHashMap<>();
+        for (TroughState state : due) {
+            PenDetectionService.PenRegion region = regionOf(state, centerOf(state));
+            groups.computeIfAbsent(region != null ? region : state, key -> new ArrayList<>()).add(state);
+        }
+        for (List<TroughState> group : groups.values()) {
+            platform.execute(group.get(0).location, () -> runCycle(group));
+        }
+    }
+
+    private void runCycle(List<TroughState> due) {
+        TroughCycleEvent event = new TroughCycleEvent();
+        event.begin();
+        long started = profiler.start();
+        CycleTally tally = new CycleTally();
+        feedDue(due, tally);
+        profiler.stop(Profiler.Section.TROUGH_CYCLE, started);
+        profiler.count(Profiler.Counter.ANIMALS_FED, tally.fed);
+        profiler.feedsPerCycle().observe(tally.fed);
+        if (event.shouldCommit()) {
+            event.dueTroughs = due.size();
+            event.feedGroups = tally.groups;
+            event.animalsFed = tally.fed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Applies every lid change queued since the last flush in one pass. Each double barrel is touched at most once
+     * per tick no matter how often feeding asked for it, and only when its wanted state differs from the known one.
+     * On Folia each half is updated by the region owning its own location, since the pair may straddle a region
+     * border.
+     */
+    private void flushLids() {
+        if (pendingLids.isEmpty()) {
+            return;
+        }
+        Iterator<DoubleBarrelTrough> iterator = pendingLids.iterator();
+        while (iterator.hasNext()) {
+            DoubleBarrelTrough trough = iterator.next();
+            iterator.remove();
+            Boolean open = trough.takeLidChange();
+            if (open == null) {
                 continue;
             }
-            int hungerDeficit = hungerManager.getMaxHunger() - hungerManager.getHunger(living);
-            if (hungerDeficit <= 0) {
+            Location primary = trough.primary;
+            Location secondary = trough.secondary;
+            platform.execute(primary, () -> DoubleBarrelTrough.setBarrelOpen(primary, open));
+            platform.execute(secondary, () -> DoubleBarrelTrough.setBarrelOpen(secondary, open));
+        }
+    }
+
+    public void handleContainerClosed(Inventory inventory) {
+        Location location = inventory.getLocation();
+        if (location == null) {
+            return;
+        }
+        TroughWorld world = findWorld(location.getWorld());
+        if (world != null) {
+            DoubleBarrelTrough pair;
+            synchronized (world) {
+                pair = world.doubleBarrels.get(
+                    BlockKeys.block(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+            }
+            if (pair != null) {
+                pair.refreshLid();
+            }
+        }
+        handleInventoryChanged(inventory);
+    }
+
+    /**
+     * Entry point for hopper transfers, hopper pickups and closed container screens. Only troughs in the chunk index
+     * are woken, including empty ones and ones not touched since a restart; these events fire for every hopper on
+     * the server, so a container missing from the index is never resolved here. Inventory events fire before the
+     * items move, so the trough checks its stock on its next phase tick.
+     */
+    public void handleInventoryChanged(Inventory inventory) {
+        if (inventory == null) {
+            return;
+        }
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null || !isChunkLoaded(location)) {
+            return;
+        }
+        TroughWorld world = findWorld(location.getWorld());
+        if (world == null) {
+            return;
+        }
+        Long troughKey;
+        TroughState known;
+        synchronized (world) {
+            troughKey = knownTroughKey(world,
+                BlockKeys.block(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+            known = troughKey != null ? world.troughs.get(troughKey) : null;
+        }
+        if (troughKey == null) {
+            return;
+        }
+        if (known == null) {
+            Location troughLocation = new Location(location.getWorld(), BlockKeys.blockX(troughKey),
+                BlockKeys.blockY(troughKey), BlockKeys.blockZ(troughKey));
+            if (!isChunkLoaded(troughLocation)) {
+                return;
+            }
+            known = stateFor(troughLocation);
+        }
+        wake(known);
+    }
+
+    /**
+     * Feeds every trough due this tick. Troughs bound to the same pen share their phase, so they arrive here
+     * together and are allocated as one group; every other trough forms a group of its own. Groups and fed animals
+     * are counted into {@code tally}.
+     */
+    private void feedDue(List<TroughState> due, CycleTally tally) {
+        Map<Object, List<FeedSource>> groups = new LinkedHashMap<>();
+        Set<TroughState> prepared = new HashSet<>();
+        for (TroughState state : due) {
+            FeedSource source = prepareTrough(state);
+            if (source == null || !prepared.add(source.state())) {
                 continue;
             }
-            int provided = storage.consumeFeed(hungerDeficit);
-            if (provided <= 0) {
-                break;
+            PenDetectionService.PenRegion region = regionOf(source.state(), source.storage().getCenterLocation());
+            groups.computeIfAbsent(region != null ? region : source, key -> new ArrayList<>()).add(source);
+        }
+        for (List<FeedSource> group : groups.values()) {
+            boolean unmetDemand = allocateFeed(group, tally);
+            for (FeedSource source : group) {
+                finishTrough(source, unmetDemand);
+            }
+        }
+        tally.groups += groups.size();
+    }
+
+    private FeedSource prepareTrough(TroughState state) {
+        Location location = state.location;
+        if (!platform.owns(location)) {
+            // A trough of the same pen in another Folia region gets its own cycle on that region's thread.
+            List<TroughState> own = List.of(state);
+            platform.execute(location, () -> runCycle(own));
+            return null;
+        }
+        DoubleBarrelTrough pair;
+        synchronized (state.world) {
+            pair = state.world.doubleBarrels.get(state.key);
+        }
+        if (!isChunkLoaded(location) || (pair != null && !pair.isLoaded())) {
+            if (state.active) {
+                synchronized (feedScheduler) {
+                    feedScheduler.postpone(state);
+                }
+            }
+            return null;
+        }
+        TroughStorage storage = resolveTrough(location.getBlock());
+        if (storage == null) {
+            markInactive(state);
+            return null;
+        }
+        TroughState current = stateFor(storage.getKeyLocation());
+        if (current != state) {
+            markInactive(state);
+            state = current;
+        }
+        if (!storage.hasFeed()) {
+            markInactive(state);
+            if (storage instanceof DoubleBarrelTrough doubleBarrel) {
+                doubleBarrel.requestLid(false);
+            }
+            return null;
+        }
+        if (storage instanceof DoubleBarrelTrough doubleBarrel) {
+            doubleBarrel.requestLid(true);
+        }
+        boolean newlyStocked = !state.active;
+        boolean demanded;
+        synchronized (feedScheduler) {
+            demanded = feedScheduler.takeDemand(state);
+        }
+        if (!demanded && !newlyStocked) {
+            return null;
+        }
+        int passes = 1;
+        synchronized (state.world) {
+            TroughChunk bucket = state.world.chunks.get(BlockKeys.chunkOfBlock(state.key));
+            if (bucket != null && bucket.catchUpCycles > 0) {
+                if (governor.isThrottling()) {
+                    // Missed cycles stay pending; the regular cycle below is what players see.
+                    governor.deferredCatchUp();
+                } else {
+                    passes += bucket.catchUpCycles;
+                    bucket.catchUpCycles = 0;
+                }
+            }
+        }
+        markActive(state);
+        return new FeedSource(state, storage, passes);
+    }
+
+    private void finishTrough(FeedSource source, boolean unmetDemand) {
+        TroughState state = source.state();
+        TroughStorage storage = source.storage();
+        if (storage.hasFeed()) {
+            if (unmetDemand) {
+                synchronized (feedScheduler) {
+                    feedScheduler.retry(state);
+                }
+            }
+        } else {
+            markInactive(state);
+            if (storage instanceof DoubleBarrelTrough doubleBarrel) {
+                doubleBarrel.requestLid(false);
+            }
+        }
+    }
+
+    private record FeedSource(TroughState state, TroughStorage storage, int passes)
+            implements FeedScheduler.Source<TroughState> {
+
+        @Override
+        public TroughState trough() {
+            return state;
+        }
+
+        @Override
+        public boolean hasFeed() {
+            return storage.hasFeed();
+        }
+
+        @Override
+        public int availableEnergy() {
+            return storage.getAvailableEnergy();
+        }
+
+        @Override
+        public int consume(int requiredEnergy) {
+            return storage.consumeFeed(requiredEnergy);
+        }
+    }
+
+    /**
+     * Counts of one trough cycle, kept locally and added to the profiler once when the cycle ends.
+     */
+    private static final class CycleTally {
+        private int groups;
+        private int fed;
+    }
+
+    private TroughWorld findWorld(World world) {
+        return world != null ? troughWorlds.get(world.getUID()) : null;
+    }
+
+    private TroughState findState(Location location) {
+        TroughWorld world = findWorld(location.getWorld());
+        if (world == null) {
+            return null;
+        }
+        synchronized (world) {
+            return world.troughs.get(BlockKeys.block(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+        }
+    }
+
+    private TroughState stateFor(Location location) {
+        World bukkitWorld = Objects.requireNonNull(location.getWorld());
+        TroughWorld world = troughWorlds.computeIfAbsent(bukkitWorld.getUID(), id -> new TroughWorld());
+        long key = BlockKeys.block(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        synchronized (world) {
+            TroughState state = world.troughs.get(key);
+            if (state == null) {
+                state = new TroughState(world, key, location);
+                world.troughs.put(key, state);
+                registryChanged = true;
+            }
+            return state;
+        }
+    }
+
+    private void markActive(TroughState state) {
+        synchronized (state.world) {
+            if (state.active) {
+                return;
+            }
+            state.active = true;
+            long chunkKey = BlockKeys.chunkOfBlock(state.key);
+            TroughChunk bucket = state.world.chunks.get(chunkKey);
+            if (bucket == null) {
+                bucket = new TroughChunk();
+                state.world.chunks.put(chunkKey, bucket);
+            }
+            bucket.troughs.add(state);
+        }
+        activeTroughCount.incrementAndGet();
+        registryChanged = true;
+    }
+
+    private void wake(TroughState state) {
+        synchronized (feedScheduler) {
+            feedScheduler.wake(state);
+        }
+    }
+
+    private void markInactive(TroughState state) {
+        synchronized (feedScheduler) {
+            feedScheduler.retire(state);
+        }
+        unbindRegion(state);
+        synchronized (state.world) {
+            if (state.active) {
+                state.active = false;
+                activeTroughCount.decrementAndGet();
+                registryChanged = true;
+                long chunkKey = BlockKeys.chunkOfBlock(state.key);
+                TroughChunk bucket = state.world.chunks.get(chunkKey);
+                if (bucket != null) {
+                    bucket.troughs.remove(state);
+                    if (bucket.troughs.isEmpty()) {
+                        state.world.chunks.remove(chunkKey);
+                    }
+                }
+            }
+            if (!state.world.doubleBarrels.containsKey(state.key) && state.world.troughs.remove(state.key) != null) {
+                registryChanged = true;
+            }
+        }
+    }
+
+    private boolean isChunkLoaded(Location location) {
+        World world = location.getWorld();
+        return world != null && world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    /**
+     * Feeds one group of troughs that share their animals through {@link FeedScheduler#feedGroup}. Fed animals are
+     * counted into {@code tally}. Reports whether hungry animals were left waiting because of the per-cycle limit.
+     */
+    private boolean allocateFeed(List<FeedSource> sources, CycleTally tally) {
+        long started = profiler.start();
+        boolean unmetDemand = feedScheduler.feedGroup(sources, settings.maxFeedsPerCycle(), new TroughHerd(tally));
+        profiler.stop(Profiler.Section.FEED_ALLOCATION, started);
+        return unmetDemand;
+    }
+
+    /**
+     * The managed, penned animals a group of troughs reaches on this thread.
+     */
+    private final class TroughHerd implements FeedScheduler.Herd<FeedSource, LivingEntity> {
+        private final CycleTally tally;
+
+        private TroughHerd(CycleTally tally) {
+            this.tally = tally;
+        }
+
+        @Override
+        public void offer(List<FeedSource> sources, FeedAllocator<LivingEntity> allocator) {
+            for (FeedSource source : sources) {
+                Location middle = source.storage().getCenterLocation();
+                if (middle.getWorld() == null) {
+                    continue;
+                }
+                for (Entity entity : feedCandidates(source.state(), middle)) {
+                    if (!(entity instanceof LivingEntity living)) {
+                        continue;
+                    }
+                    if (!hungerManager.isManagedEntity(living) || !platform.owns(living)) {
+                        continue;
+                    }
+                    if (!isPenned(living)) {
+                        continue;
+                    }
+                    int hunger = hungerManager.getHunger(living);
+                    allocator.offer(living, living.getEntityId(),
+                        HungerMath.deficit(hunger, hungerManager.getMaxHunger()), hunger < settings.demandThreshold());
+                }
             }
-            hungerManager.addHunger(living, provided);
-            fed++;
+        }
+
+        @Override
+        public void feed(LivingEntity animal, int energy) {
+            hungerManager.addHunger(animal, energy);
+            tally.fed++;
         }
     }
 
+    /**
+     * Whether the animal is known to live in a pen. Animals whose pen was never detected are skipped for this cycle
+     * while their detection is queued, so a trough cycle never runs a flood fill itself.
+     */
+    private boolean isPenned(LivingEntity living) {
+        PenDetectionService.PenInfo penInfo = penDetectionService.lookupPenInfo(living);
+        return penInfo != null && penInfo.getStatus() != PenDetectionService.PenStatus.WILD;
+    }
+
     private boolean isNamedTrough(Container container) {
-        if (troughNameTag == null || troughNameTag.isEmpty()) {
+        String nameTag = settings.nameTag();
+        if (nameTag == null || nameTag.isEmpty()) {
             return true;
         }
         if (container.getCustomName() == null) {
             return false;
         }
-        return troughNameTag.equalsIgnoreCase(ChatColor.stripColor(container.getCustomName()));
+        return nameTag.equalsIgnoreCase(ChatColor.stripColor(container.getCustomName()));
     }
 
     private TroughStorage resolveTrough(Block block) {
@@ -415,21 +1191,90 @@ public class TroughManager {
                 return trough;
             }
         }
-        if (block.getState() instanceof Container container) {
-            if (!isNamedTrough(container)) {
-                return null;
+        CachedContainer container = lookupContainer(block);
+        if (container == null || !container.namedTrough()) {
+            return null;
+        }
+        return new ContainerTrough(block.getLocation());
+    }
+
+    /**
+     * Returns the cached container at the block, taking a {@code BlockState} snapshot only on the first lookup of a
+     * position. The cached inventory is the live tile-entity inventory, so reads and writes need no snapshot. Entries
+     * are dropped on break, place, explosion and chunk unload and re-validated against the block type on every hit.
+     */
+    private CachedContainer lookupContainer(Block block) {
+        World bukkitWorld = block.getWorld();
+        if (bukkitWorld == null) {
+            return null;
+        }
+        TroughWorld world = troughWorlds.computeIfAbsent(bukkitWorld.getUID(), id -> new TroughWorld());
+        long chunkKey = BlockKeys.chunk(block.getX() >> 4, block.getZ() >> 4);
+        long blockKey = BlockKeys.block(block.getX(), block.getY(), block.getZ());
+        Material type = block.getType();
+        synchronized (world) {
+            LongObjectMap<CachedContainer> chunkContainers = world.containers.get(chunkKey);
+            CachedContainer cached = chunkContainers != null ? chunkContainers.get(blockKey) : null;
+            if (cached != null) {
+                if (cached.type() == type) {
+                    profiler.count(Profiler.Counter.CONTAINER_CACHE_HIT);
+                    return cached;
+                }
+                chunkContainers.remove(blockKey);
+            }
+        }
+        profiler.count(Profiler.Counter.CONTAINER_CACHE_MISS);
+        if (!settings.blocks().contains(type) && type != Material.BARREL) {
+            return null;
+        }
+        if (!(block.getState() instanceof Container container)) {
+            return null;
+        }
+        CachedContainer created = new CachedContainer(type, container.getInventory(), isNamedTrough(container),
+            new ConsumptionPlanner.Memo());
+        synchronized (world) {
+            LongObjectMap<CachedContainer> chunkContainers = world.containers.get(chunkKey);
+            if (chunkContainers == null) {
+                chunkContainers = new LongObjectMap<>();
+                world.containers.put(chunkKey, chunkContainers);
             }
-            return new ContainerTrough(block.getLocation());
+            chunkContainers.put(blockKey, created);
         }
-        return null;
+        return created;
+    }
+
+    public void invalidateContainer(Block block) {
+        TroughWorld world = findWorld(block.getWorld());
+        if (world == null) {
+            return;
+        }
+        long chunkKey = BlockKeys.chunk(block.getX() >> 4, block.getZ() >> 4);
+        synchronized (world) {
+            LongObjectMap<CachedContainer> chunkContainers = world.containers.get(chunkKey);
+            if (chunkContainers == null) {
+                return;
+            }
+            chunkContainers.remove(BlockKeys.block(block.getX(), block.getY(), block.getZ()));
+            if (chunkContainers.isEmpty()) {
+                world.containers.remove(chunkKey);
+            }
+        }
+    }
+
+    private record CachedContainer(Material type, Inventory inventory, boolean namedTrough,
+                                   ConsumptionPlanner.Memo plans) {
     }
 
     private DoubleBarrelTrough getDoubleBarrelTrough(Block block) {
-        Location location = block.getLocation();
-        DoubleBarrelTrough existing = doubleBarrelTroughs.get(location);
+        TroughWorld world = findWorld(block.getWorld());
+        DoubleBarrelTrough existing = null;
+        if (world != null) {
+            synchronized (world) {
+                existing = world.doubleBarrels.get(BlockKeys.block(block.getX(), block.getY(), block.getZ()));
+            }
+        }
         if (existing != null) {
             if (existing.isIntact()) {
-                existing.ensureOpen();
                 return existing;
             }
             removeDoubleBarrelTrough(existing);
@@ -438,8 +1283,9 @@ public class TroughManager {
         if (adjacent == null) {
             return null;
         }
-        DoubleBarrelTrough trough = createDoubleBarrelTrough(location, adjacent.getLocation());
+        DoubleBarrelTrough trough = createDoubleBarrelTrough(block.getLocation(), adjacent.getLocation());
         registerDoubleBarrelTrough(trough);
+        trough.requestLid(trough.hasFeed());
         return trough;
     }
 
@@ -488,16 +1334,77 @@ public class TroughManager {
     }
 
     private void registerDoubleBarrelTrough(DoubleBarrelTrough trough) {
-        doubleBarrelTroughs.put(trough.getPrimary(), trough);
-        doubleBarrelTroughs.put(trough.getSecondary(), trough);
+        TroughState state = stateFor(trough.getPrimary());
+        synchronized (state.world) {
+            state.world.doubleBarrels.put(trough.getPrimaryKey(), trough);
+            state.world.doubleBarrels.put(trough.getSecondaryKey(), trough);
+        }
+        registryChanged = true;
     }
 
     private void removeDoubleBarrelTrough(DoubleBarrelTrough trough) {
-        doubleBarrelTroughs.remove(trough.getPrimary());
-        doubleBarrelTroughs.remove(trough.getSecondary());
+        TroughWorld world = findWorld(trough.getPrimary().getWorld());
+        if (world != null) {
+            synchronized (world) {
+                world.doubleBarrels.remove(trough.getPrimaryKey());
+                world.doubleBarrels.remove(trough.getSecondaryKey());
+                registryChanged = true;
+                TroughState state = world.troughs.get(trough.getPrimaryKey());
+                if (state != null && !state.active) {
+                    synchronized (feedScheduler) {
+                        feedScheduler.cancel(state);
+                    }
+                    world.troughs.remove(state.key);
+                }
+            }
+        }
         trough.close();
     }
 
+    /**
+     * Trough registry of one world. Troughs, double-barrel halves, chunk buckets and the container cache are all
+     * addressed by packed block or chunk keys, so lookups neither allocate nor hash {@code Location} objects. All maps,
+     * and the buckets in them, are guarded by the instance's monitor.
+     */
+    private static final class TroughWorld {
+        private final LongObjectMap<TroughState> troughs = new LongObjectMap<>();
+        private final LongObjectMap<DoubleBarrelTrough> doubleBarrels = new LongObjectMap<>();
+        private final LongObjectMap<TroughChunk> chunks = new LongObjectMap<>();
+        private final LongObjectMap<LongObjectMap<CachedContainer>> containers = new LongObjectMap<>();
+        private final LongObjectMap<LongObjectMap<Long>> knownTroughs = new LongObjectMap<>();
+    }
+
+    /**
+     * Scheduling state of one trough, keyed by the block key of its key location. {@code active} changes under the
+     * world lock, the pen binding under the state's own monitor; both are read without locks.
+     */
+    private static final class TroughState extends FeedScheduler.Trough {
+        private final TroughWorld world;
+        private final long key;
+        private final Location location;
+        private volatile boolean active;
+        private volatile PenDetectionService.PenRegion region;
+        private volatile long regionVersion = -1L;
+        private volatile long regionChunk;
+
+        private TroughState(TroughWorld world, long key, Location location) {
+            this.world = world;
+            this.key = key;
+            this.location = location;
+        }
+    }
+
+    /**
+     * Active troughs of a single chunk. While the chunk is unloaded the bucket stays dormant and remembers
+     * when it went to sleep so the missed feed cycles can be caught up once the chunk is back.
+     */
+    private static final class TroughChunk {
+        private final Set<TroughState> troughs = new HashSet<>();
+        private boolean dormant;
+        private long dormantSinceMillis;
+        private int catchUpCycles;
+    }
+
     private interface TroughStorage {
         Location getKeyLocation();
 
@@ -510,6 +1417,8 @@ public class TroughManager {
         int consumeFeed(int requiredEnergy);
 
         int getFeedCount();
+
+        int getAvailableEnergy();
     }
 
     private class ContainerTrough implements TroughStorage {
@@ -520,14 +1429,19 @@ public class TroughManager {
             this.location = location.getBlock().getLocation();
         }
 
-        private Container requireContainer() {
-            BlockState state = location.getBlock().getState();
-            if (!(state instanceof Container current) || !isNamedTrough(current)) {
+        private CachedContainer requireContainer() {
+            CachedContainer current = lookupContainer(location.getBlock());
+            if (current == null || !current.namedTrough()) {
                 return null;
             }
             return current;
         }
 
+        private Inventory requireInventory() {
+            CachedContainer current = requireContainer();
+            return current != null ? current.inventory() : null;
+        }
+
         @Override
         public Location getKeyLocation() {
             return location;
@@ -540,22 +1454,21 @@ public class TroughManager {
 
         @Override
         public boolean addFeed(ItemStack stack) {
-            Container current = requireContainer();
-            if (current == null) {
+            Inventory inventory = requireInventory();
+            if (inventory == null) {
                 return false;
             }
             ItemStack single = stack.clone();
             single.setAmount(1);
-            return current.getInventory().addItem(single).isEmpty();
+            return inventory.addItem(single).isEmpty();
         }
 
         @Override
         public boolean hasFeed() {
-            Container current = requireContainer();
-            if (current == null) {
+            Inventory inventory = requireInventory();
+            if (inventory == null) {
                 return false;
             }
-            Inventory inventory = current.getInventory();
             for (ItemStack stack : inventory.getContents()) {
                 if (stack != null && isFeedEnergyItem(stack.getType()) && stack.getAmount() > 0) {
                     return true;
@@ -569,23 +1482,25 @@ public class TroughManager {
             if (requiredEnergy <= 0) {
                 return 0;
             }
-            Container current = requireContainer();
-            if (current == null) {
+            CachedContainer container = requireContainer();
+            if (container == null) {
                 return 0;
             }
-            Inventory inventory = current.getInventory();
-            int consumed = consumeFromInventory(inventory, requiredEnergy);
-            return consumed;
+            return consumeFromInventory(container.inventory(), requiredEnergy, container.plans());
+        }
+
+        @Override
+        public int getAvailableEnergy() {
+            return inventoryEnergy(requireInventory());
         }
 
         @Override
         public int getFeedCount() {
             int total = 0;
-            Container current = requireContainer();
-            if (current == null) {
+            Inventory inventory = requireInventory();
+            if (inventory == null) {
                 return 0;
             }
-            Inventory inventory = current.getInventory();
             for (ItemStack stack : inventory.getContents()) {
                 if (stack != null && isFeedEnergyItem(stack.getType())) {
                     total += stack.getAmount();
@@ -599,13 +1514,18 @@ public class TroughManager {
 
         private final Location primary;
         private final Location secondary;
+        private final long primaryKey;
+        private final long secondaryKey;
         private final Location center;
+        private Boolean lidOpen;
+        private boolean wantedOpen;
 
         private DoubleBarrelTrough(Location primary, Location secondary) {
             this.primary = primary.getBlock().getLocation();
             this.secondary = secondary.getBlock().getLocation();
+            this.primaryKey = BlockKeys.block(primary.getBlockX(), primary.getBlockY(), primary.getBlockZ());
+            this.secondaryKey = BlockKeys.block(secondary.getBlockX(), secondary.getBlockY(), secondary.getBlockZ());
             this.center = computeCenter(primary, secondary);
-            ensureOpen();
         }
 
         private Location computeCenter(Location a, Location b) {
@@ -615,6 +1535,10 @@ public class TroughManager {
             return new Location(Objects.requireNonNull(a.getWorld()), x, y, z);
         }
 
+        boolean isLoaded() {
+            return isChunkLoaded(primary) && isChunkLoaded(secondary);
+        }
+
         boolean isIntact() {
             return isBarrel(primary) && isBarrel(secondary) && areAdjacent(primary, secondary);
         }
@@ -641,6 +1565,14 @@ public class TroughManager {
             return secondary;
         }
 
+        long getPrimaryKey() {
+            return primaryKey;
+        }
+
+        long getSecondaryKey() {
+            return secondaryKey;
+        }
+
         @Override
         public Location getKeyLocation() {
             return primary;
@@ -676,48 +1608,43 @@ public class TroughManager {
             if (remaining > 0) {
                 consumed += consumeFromContainer(secondary, remaining);
             }
-            if (consumed > 0) {
-                ensureOpen();
-            }
             return consumed;
         }
 
         void close() {
-            setBarrelOpen(primary, false);
-            setBarrelOpen(secondary, false);
+            requestLid(false);
         }
 
         private boolean tryAddToContainer(Location location, ItemStack item) {
-            Container container = getContainer(location);
-            if (container == null) {
+            Inventory inventory = getInventory(location);
+            if (inventory == null) {
                 return false;
             }
-            Map<Integer, ItemStack> overflow = container.getInventory().addItem(item);
+            Map<Integer, ItemStack> overflow = inventory.addItem(item);
             if (!overflow.isEmpty()) {
                 return false;
             }
-            ensureOpen();
+            requestLid(true);
             return true;
         }
 
         private int consumeFromContainer(Location location, int requiredEnergy) {
-            Container container = getContainer(location);
+            if (location.getWorld() == null) {
+                return 0;
+            }
+            CachedContainer container = lookupContainer(location.getBlock());
             if (container == null) {
                 return 0;
             }
-            Inventory inventory = container.getInventory();
-            return consumeFromInventory(inventory, requiredEnergy);
+            return consumeFromInventory(container.inventory(), requiredEnergy, container.plans());
         }
 
-        private Container getContainer(Location location) {
+        private Inventory getInventory(Location location) {
             if (location.getWorld() == null) {
                 return null;
             }
-            BlockState state = location.getBlock().getState();
-            if (state instanceof Container container) {
-                return container;
-            }
-            return null;
+            CachedContainer container = lookupContainer(location.getBlock());
+            return container != null ? container.inventory() : null;
         }
 
         @Override
@@ -725,13 +1652,18 @@ public class TroughManager {
             return countInventory(primary) + countInventory(secondary);
         }
 
+        @Override
+        public int getAvailableEnergy() {
+            return inventoryEnergy(getInventory(primary)) + inventoryEnergy(getInventory(secondary));
+        }
+
         private int countInventory(Location location) {
-            Container container = getContainer(location);
-            if (container == null) {
+            Inventory inventory = getInventory(location);
+            if (inventory == null) {
                 return 0;
             }
             int total = 0;
-            for (ItemStack stack : container.getInventory().getContents()) {
+            for (ItemStack stack : inventory.getContents()) {
                 if (stack != null && isFeedEnergyItem(stack.getType())) {
                     total += stack.getAmount();
                 }
@@ -739,12 +1671,30 @@ public class TroughManager {
             return total;
         }
 
-        void ensureOpen() {
-            setBarrelOpen(primary, true);
-            setBarrelOpen(secondary, true);
+        synchronized void requestLid(boolean open) {
+            wantedOpen = open;
+            if (lidOpen == null || lidOpen != open) {
+                pendingLids.add(this);
+            }
+        }
+
+        synchronized void refreshLid() {
+            lidOpen = null;
+            pendingLids.add(this);
+        }
+
+        /**
+         * Records the wanted lid state as applied and returns it, or {@code null} if the barrels already show it.
+         */
+        synchronized Boolean takeLidChange() {
+            if (lidOpen != null && lidOpen == wantedOpen) {
+                return null;
+            }
+            lidOpen = wantedOpen;
+            return lidOpen;
         }
 
-        private void setBarrelOpen(Location location, boolean open) {
+        static void setBarrelOpen(Location location, boolean open) {
             if (location.getWorld() == null) {
                 return;
             }
@@ -784,30 +1734,38 @@ public class TroughManager {
         int feedCount = storage.getFeedCount();
         int detected = 0;
         Location middle = storage.getCenterLocation();
+        TroughState state = findState(storage.getKeyLocation());
         if (middle.getWorld() != null) {
-            for (Entity entity : middle.getWorld().getNearbyEntities(middle, feedRadius, feedRadius, feedRadius)) {
+            for (Entity entity : feedCandidates(state, middle)) {
                 if (!(entity instanceof LivingEntity living)) {
                     continue;
                 }
-                if (!hungerManager.isManagedEntity(living)) {
+                if (!hungerManager.isManagedEntity(living) || !platform.owns(living)) {
                     continue;
                 }
-                if (penDetectionService.getPenStatus(living) == PenDetectionService.PenStatus.WILD) {
+                if (!isPenned(living)) {
                     continue;
                 }
                 detected++;
             }
         }
-        long millisUntilNext = Math.max(0L, nextFeedRunMillis - System.currentTimeMillis());
+        long millisUntilNext = -1L;
+        if (state != null) {
+            synchronized (feedScheduler) {
+                Long deadline = feedScheduler.getDeadline(state);
+                if (deadline != null) {
+                    millisUntilNext = ticksToMillis(deadline - feedScheduler.getCurrentTick());
+                }
+            }
+        }
         boolean doubleBarrel = storage instanceof DoubleBarrelTrough;
-        boolean active = activeTroughs.contains(storage.getKeyLocation());
+        boolean active = state != null && state.active;
         return new TroughDebugInfo(storage.getKeyLocation(), doubleBarrel, feedCount, detected, millisUntilNext, active);
     }
 
-    public long getNextFeedRunMillis() {
-        return nextFeedRunMillis;
-    }
-
+    /**
+     * Snapshot for the debug sword. {@code millisUntilNextFeed} is negative while the trough sleeps without demand.
+     */
     public record TroughDebugInfo(Location keyLocation, boolean doubleBarrel, int feedItems,
                                    int detectedAnimals, long millisUntilNextFeed, boolean active) {
     }
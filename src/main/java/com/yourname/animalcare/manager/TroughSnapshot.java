@@ -0,0 +1,63 @@
+package com.yourname.animalcare.manager;
+
+import com.yourname.animalcare.util.BlockKeys;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the trough registry for readers on other threads, such as scoreboards, placeholder providers or
+ * the metrics exporter. The manager publishes a new snapshot at the end of every tick in which the registry changed,
+ * so a snapshot is at most one tick old and never changes underneath its reader.
+ */
+public final class TroughSnapshot {
+
+    static final TroughSnapshot EMPTY = new TroughSnapshot(Collections.emptyMap(), 0, 0);
+
+    private final Map<UUID, long[]> activeByWorld;
+    private final int activeCount;
+    private final int knownCount;
+    private final int doubleBarrelCount;
+
+    /**
+     * @param activeByWorld sorted block keys of the active troughs per world; the arrays are not copied
+     */
+    TroughSnapshot(Map<UUID, long[]> activeByWorld, int knownCount, int doubleBarrelCount) {
+        this.activeByWorld = Collections.unmodifiableMap(activeByWorld);
+        int active = 0;
+        for (long[] keys : activeByWorld.values()) {
+            active += keys.length;
+        }
+        this.activeCount = active;
+        this.knownCount = knownCount;
+        this.doubleBarrelCount = doubleBarrelCount;
+    }
+
+    /**
+     * Whether the block is the key block of a stocked trough. For double barrels only the primary half counts.
+     */
+    public boolean isActiveTrough(World world, int x, int y, int z) {
+        long[] keys = world != null ? activeByWorld.get(world.getUID()) : null;
+        return keys != null && Arrays.binarySearch(keys, BlockKeys.block(x, y, z)) >= 0;
+    }
+
+    public boolean isActiveTrough(Location location) {
+        return isActiveTrough(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getKnownCount() {
+        return knownCount;
+    }
+
+    public int getDoubleBarrelCount() {
+        return doubleBarrelCount;
+    }
+}
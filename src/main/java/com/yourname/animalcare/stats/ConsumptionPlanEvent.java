@@ -0,0 +1,32 @@
+package com.yourname.animalcare.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one consumption plan against a trough inventory. Plans run once per trough and cycle, so the event
+ * is disabled by default and has to be switched on in the recording settings.
+ */
+@Name("animalcare.ConsumptionPlan")
+@Label("Consumption Plan")
+@Category({"AnimalCare", "Troughs"})
+@Description("Planning which feed stacks a trough consumes")
+@Enabled(false)
+@StackTrace(false)
+public final class ConsumptionPlanEvent extends Event {
+
+    @Label("Requested Energy")
+    public int requestedEnergy;
+
+    @Label("Planned Energy")
+    public int plannedEnergy;
+
+    @Label("Cache Hit")
+    @Description("True if the planner table of the container could be reused")
+    public boolean cacheHit;
+}
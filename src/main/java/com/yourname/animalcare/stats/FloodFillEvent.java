@@ -0,0 +1,52 @@
+package com.yourname.animalcare.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one pen flood fill started from an animal's position.
+ */
+@Name("animalcare.FloodFill")
+@Label("Pen Flood Fill")
+@Category({"AnimalCare", "Pens"})
+@Description("Flood fill that decides whether an animal stands in a pen")
+@StackTrace(false)
+public final class FloodFillEvent extends Event {
+
+    @Label("Entity Type")
+    public String entityType;
+
+    @Label("Entity UUID")
+    public String entityId;
+
+    @Label("World")
+    public String world;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Z")
+    public int z;
+
+    @Label("Visited Nodes")
+    public int visitedNodes;
+
+    @Label("Slices")
+    @Description("Ticks the fill was spread over; the event duration includes the time it spent suspended")
+    public int slices;
+
+    @Label("Escaped")
+    @Description("True if the fill left the detection radius, i.e. the animal counts as wild")
+    public boolean escaped;
+
+    @Label("Capped")
+    @Description("True if the fill hit pen.max-fill-nodes first; the animal keeps its previous status")
+    public boolean capped;
+}
@@ -0,0 +1,49 @@
+package com.yourname.animalcare.stats;
+
+/**
+ * Cumulative histogram with fixed upper bounds. Observations are never cleared, matching the semantics of a
+ * Prometheus histogram; {@link #snapshot()} copies the counts so exporters can format them off the main thread.
+ * Observations may come from several threads.
+ */
+public final class Histogram {
+
+    private final long[] upperBounds;
+    private final long[] counts;
+    private long count;
+    private long sum;
+
+    /**
+     * @param upperBounds inclusive bucket limits in ascending order; values above the last one land in {@code +Inf}
+     */
+    public Histogram(long... upperBounds) {
+        this.upperBounds = upperBounds.clone();
+        this.counts = new long[upperBounds.length + 1];
+    }
+
+    public synchronized void observe(long value) {
+        int bucket = 0;
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        count++;
+        sum += value;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] cumulative = new long[counts.length];
+        long running = 0;
+        for (int i = 0; i < counts.length; i++) {
+            running += counts[i];
+            cumulative[i] = running;
+        }
+        return new Snapshot(upperBounds.clone(), cumulative, count, sum);
+    }
+
+    /**
+     * Frozen histogram state. {@code cumulativeCounts} has one entry per bound plus a final {@code +Inf} entry that
+     * equals {@code count}.
+     */
+    public record Snapshot(long[] upperBounds, long[] cumulativeCounts, long count, long sum) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.yourname.animalcare.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one hunger tick over every managed animal.
+ */
+@Name("animalcare.HungerTick")
+@Label("Hunger Tick")
+@Category({"AnimalCare", "Hunger"})
+@Description("Hunger update batch over all managed animals")
+@StackTrace(false)
+public final class HungerTickEvent extends Event {
+
+    @Label("Animals")
+    public int animals;
+}
@@ -0,0 +1,98 @@
+package com.yourname.animalcare.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters, gauges and histograms backed by the plugin's own bookkeeping. Registering the same name again
+ * with other labels adds a sample to the existing family. Values are only read in {@link #snapshot()}, which must
+ * run on the main thread; exporters work on the returned copy.
+ */
+public final class MetricsRegistry {
+
+    private final Map<String, FamilyDefinition> families = new LinkedHashMap<>();
+
+    /**
+     * @param labels alternating label names and values
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, MetricsSnapshot.Type.COUNTER, 1.0D).sources.add(new Source(labels(labels), value, null));
+    }
+
+    /**
+     * @param labels alternating label names and values
+     */
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, MetricsSnapshot.Type.GAUGE, 1.0D).sources.add(new Source(labels(labels), value, null));
+    }
+
+    /**
+     * @param scale factor applied to bounds and sum on export, e.g. {@code 1e-9} for nanosecond histograms
+     * @param labels alternating label names and values
+     */
+    public void histogram(String name, String help, double scale, Histogram histogram, String... labels) {
+        family(name, help, MetricsSnapshot.Type.HISTOGRAM, scale).sources
+            .add(new Source(labels(labels), null, histogram));
+    }
+
+    public MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.Family> snapshot = new ArrayList<>(families.size());
+        for (FamilyDefinition family : families.values()) {
+            List<MetricsSnapshot.Sample> samples = new ArrayList<>(family.sources.size());
+            for (Source source : family.sources) {
+                if (source.histogram != null) {
+                    samples.add(new MetricsSnapshot.Sample(source.labels, 0L, source.histogram.snapshot()));
+                } else {
+                    samples.add(new MetricsSnapshot.Sample(source.labels, source.value.getAsLong(), null));
+                }
+            }
+            snapshot.add(new MetricsSnapshot.Family(family.name, family.help, family.type, family.scale,
+                Collections.unmodifiableList(samples)));
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), Collections.unmodifiableList(snapshot));
+    }
+
+    private FamilyDefinition family(String name, String help, MetricsSnapshot.Type type, double scale) {
+        FamilyDefinition family = families.computeIfAbsent(name, key -> new FamilyDefinition(key, help, type, scale));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type);
+        }
+        return family;
+    }
+
+    private static Map<String, String> labels(String[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name/value pairs");
+        }
+        if (pairs.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            labels.put(pairs[i], pairs[i + 1]);
+        }
+        return Collections.unmodifiableMap(labels);
+    }
+
+    private static final class FamilyDefinition {
+        private final String name;
+        private final String help;
+        private final MetricsSnapshot.Type type;
+        private final double scale;
+        private final List<Source> sources = new ArrayList<>();
+
+        private FamilyDefinition(String name, String help, MetricsSnapshot.Type type, double scale) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.scale = scale;
+        }
+    }
+
+    private record Source(Map<String, String> labels, LongSupplier value, Histogram histogram) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.yourname.animalcare.stats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of every registered metric, taken on the main thread by {@link MetricsRegistry#snapshot()} and
+ * safe to format on any thread.
+ */
+public record MetricsSnapshot(long timestampMillis, List<Family> families) {
+
+    public enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        HISTOGRAM("histogram");
+
+        private final String exposition;
+
+        Type(String exposition) {
+            this.exposition = exposition;
+        }
+
+        public String getExposition() {
+            return exposition;
+        }
+    }
+
+    /**
+     * All samples sharing one metric name. Histogram bounds and sums are multiplied by {@code scale} on export, so
+     * nanosecond histograms can be published in seconds.
+     */
+    public record Family(String name, String help, Type type, double scale, List<Sample> samples) {
+    }
+
+    /**
+     * One labelled value; {@code histogram} is set instead of {@code value} for histogram families.
+     */
+    public record Sample(Map<String, String> labels, long value, Histogram.Snapshot histogram) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.yourname.animalcare.stats;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Renders a {@link MetricsSnapshot} as one JSON object per line: a timestamp plus, per metric name, the list of its
+ * labelled samples.
+ */
+public final class NdjsonFormat {
+
+    private NdjsonFormat() {
+    }
+
+    public static String format(MetricsSnapshot snapshot) {
+        StringBuilder out = new StringBuilder(2048);
+        out.append("{\"timestamp\":\"").append(Instant.ofEpochMilli(snapshot.timestampMillis())).append("\"");
+        for (MetricsSnapshot.Family family : snapshot.families()) {
+            out.append(",\"").append(escape(family.name())).append("\":[");
+            boolean first = true;
+            for (MetricsSnapshot.Sample sample : family.samples()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                out.append("{\"labels\":");
+                appendLabels(out, sample.labels());
+                if (sample.histogram() != null) {
+                    appendHistogram(out, sample.histogram(), family.scale());
+                } else {
+                    out.append(",\"value\":").append(sample.value());
+                }
+                out.append('}');
+            }
+            out.append(']');
+        }
+        return out.append("}\n").toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, Histogram.Snapshot histogram, double scale) {
+        out.append(",\"count\":").append(histogram.count())
+            .append(",\"sum\":").append(PrometheusFormat.formatScaled(histogram.sum(), scale))
+            .append(",\"buckets\":{");
+        long[] bounds = histogram.upperBounds();
+        long[] counts = histogram.cumulativeCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String bound = i < bounds.length ? PrometheusFormat.formatScaled(bounds[i], scale) : "+Inf";
+            out.append('"').append(bound).append("\":").append(counts[i]);
+        }
+        out.append('}');
+    }
+
+    private static void appendLabels(StringBuilder out, Map<String, String> labels) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append('"').append(escape(label.getKey())).append("\":\"").append(escape(label.getValue())).append('"');
+        }
+        out.append('}');
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
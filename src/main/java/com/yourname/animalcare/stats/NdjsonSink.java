@@ -0,0 +1,124 @@
+package com.yourname.animalcare.stats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends snapshots to a newline-delimited JSON file on a background thread. Once the file would exceed
+ * {@code maxBytes} it is rolled to {@code name.1}, older files shift up and the oldest beyond {@code maxFiles} is
+ * deleted.
+ */
+public final class NdjsonSink {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final Logger logger;
+    private final ExecutorService executor;
+    private boolean failureLogged;
+
+    public NdjsonSink(Path file, long maxBytes, int maxFiles, Logger logger) {
+        this.file = file;
+        this.maxBytes = Math.max(1024L, maxBytes);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AnimalCare-Metrics-NDJSON");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void submit(MetricsSnapshot snapshot) {
+        try {
+            executor.execute(() -> append(snapshot));
+        } catch (RejectedExecutionException ignored) {
+            // Closed while the main thread was still handing over a snapshot.
+        }
+    }
+
+    /**
+     * Lets the writer thread finish the snapshots still queued and then exit, without waiting for it.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Holds this sink's first write back until {@code previous}, already shut down, has written its queue, so two
+     * writers never append to or roll the same file at once. The wait happens on this sink's writer thread.
+     */
+    public void follow(NdjsonSink previous) {
+        executor.execute(() -> {
+            try {
+                previous.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Writes the snapshots still queued and stops the writer thread, waiting at most a few seconds.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(MetricsSnapshot snapshot) {
+        byte[] line = NdjsonFormat.format(snapshot).getBytes(StandardCharsets.UTF_8);
+        try {
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(file) && Files.size(file) + line.length > maxBytes) {
+                roll();
+            }
+            Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            failureLogged = false;
+        } catch (IOException ex) {
+            if (!failureLogged) {
+                logger.log(Level.WARNING, "Failed to write metrics to " + file, ex);
+                failureLogged = true;
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        if (maxFiles == 1) {
+            Files.delete(file);
+            return;
+        }
+        Files.deleteIfExists(rolled(maxFiles - 1));
+        for (int index = maxFiles - 2; index >= 1; index--) {
+            Path source = rolled(index);
+            if (Files.exists(source)) {
+                Files.move(source, rolled(index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,79 @@
+package com.yourname.animalcare.stats;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Local HTTP endpoint serving the latest snapshot at {@code /metrics}. Requests are answered on a single daemon
+ * thread and only format the snapshot handed over by the main thread, so a scrape never touches the server.
+ */
+public final class PrometheusEndpoint {
+
+    private final InetSocketAddress address;
+    private final Supplier<MetricsSnapshot> latest;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusEndpoint(String host, int port, Supplier<MetricsSnapshot> latest) {
+        this.address = new InetSocketAddress(host, port);
+        this.latest = latest;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(address, 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AnimalCare-Metrics-HTTP");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            MetricsSnapshot snapshot = latest.get();
+            if (snapshot == null) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            byte[] body = PrometheusFormat.format(snapshot).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
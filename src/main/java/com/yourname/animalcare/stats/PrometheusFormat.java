@@ -0,0 +1,75 @@
+package com.yourname.animalcare.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders a {@link MetricsSnapshot} in the Prometheus text exposition format (version 0.0.4).
+ */
+public final class PrometheusFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusFormat() {
+    }
+
+    public static String format(MetricsSnapshot snapshot) {
+        StringBuilder out = new StringBuilder(4096);
+        for (MetricsSnapshot.Family family : snapshot.families()) {
+            out.append("# HELP ").append(family.name()).append(' ')
+                .append(family.help().replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ')
+                .append(family.type().getExposition()).append('\n');
+            for (MetricsSnapshot.Sample sample : family.samples()) {
+                if (sample.histogram() != null) {
+                    appendHistogram(out, family, sample);
+                } else {
+                    appendLine(out, family.name(), sample.labels(), Long.toString(sample.value()));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, MetricsSnapshot.Family family,
+                                        MetricsSnapshot.Sample sample) {
+        Histogram.Snapshot histogram = sample.histogram();
+        long[] bounds = histogram.upperBounds();
+        long[] counts = histogram.cumulativeCounts();
+        for (int i = 0; i < counts.length; i++) {
+            Map<String, String> labels = new LinkedHashMap<>(sample.labels());
+            labels.put("le", i < bounds.length ? formatScaled(bounds[i], family.scale()) : "+Inf");
+            appendLine(out, family.name() + "_bucket", labels, Long.toString(counts[i]));
+        }
+        appendLine(out, family.name() + "_sum", sample.labels(), formatScaled(histogram.sum(), family.scale()));
+        appendLine(out, family.name() + "_count", sample.labels(), Long.toString(histogram.count()));
+    }
+
+    private static void appendLine(StringBuilder out, String name, Map<String, String> labels, String value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                out.append(label.getKey()).append("=\"").append(escapeLabel(label.getValue())).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    static String formatScaled(long value, double scale) {
+        if (scale == 1.0D) {
+            return Long.toString(value);
+        }
+        return Double.toString(value * scale);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
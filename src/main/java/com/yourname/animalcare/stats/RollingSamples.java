@@ -0,0 +1,53 @@
+package com.yourname.animalcare.stats;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of the most recent durations of one profiler section. Percentiles are computed on request from a
+ * sorted copy, keeping {@link #add(long)} allocation-free. Access is synchronized because region threads record
+ * concurrently on Folia.
+ */
+final class RollingSamples {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long runs;
+    private long totalNanos;
+
+    RollingSamples(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void add(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        runs++;
+        totalNanos += nanos;
+    }
+
+    synchronized void clear() {
+        next = 0;
+        size = 0;
+        runs = 0;
+        totalNanos = 0;
+    }
+
+    synchronized Profiler.SectionStats stats() {
+        if (size == 0) {
+            return new Profiler.SectionStats(runs, totalNanos, 0, 0, 0, 0);
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Profiler.SectionStats(runs, totalNanos, percentile(sorted, 0.50), percentile(sorted, 0.95),
+            percentile(sorted, 0.99), sorted[size - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
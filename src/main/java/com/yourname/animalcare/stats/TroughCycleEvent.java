@@ -0,0 +1,29 @@
+package com.yourname.animalcare.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the troughs that came due on one server tick.
+ */
+@Name("animalcare.TroughCycle")
+@Label("Trough Cycle")
+@Category({"AnimalCare", "Troughs"})
+@Description("Feeding of all troughs whose phase came due on one tick")
+@StackTrace(false)
+public final class TroughCycleEvent extends Event {
+
+    @Label("Due Troughs")
+    public int dueTroughs;
+
+    @Label("Feed Groups")
+    @Description("Number of pens and unbound troughs fed as one allocation")
+    public int feedGroups;
+
+    @Label("Animals Fed")
+    public long animalsFed;
+}
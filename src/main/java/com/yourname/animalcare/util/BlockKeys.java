@@ -0,0 +1,35 @@
+package com.yourname.animalcare.util;
+
+/**
+ * Packs block and chunk coordinates into single {@code long} keys so lookups never allocate a {@code Location}.
+ * Block keys use the vanilla layout: 26 bits x, 26 bits z and 12 bits y.
+ */
+public final class BlockKeys {
+
+    private BlockKeys() {
+    }
+
+    public static long block(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+
+    public static int blockX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int blockY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int blockZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    public static long chunk(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static long chunkOfBlock(long blockKey) {
+        return chunk(blockX(blockKey) >> 4, blockZ(blockKey) >> 4);
+    }
+}
@@ -0,0 +1,247 @@
+package com.yourname.animalcare.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * Where AnimalCare work may run. On Spigot and Paper everything happens on the main thread, so tasks run inline and
+ * the main thread owns every chunk and entity. On Folia each region has its own thread: work touching a block or
+ * entity must be handed to the scheduler owning it, and the periodic driver runs on the global region scheduler.
+ * Folia's scheduler API is reached reflectively so the plugin keeps building against the Spigot API.
+ */
+public abstract class ServerPlatform {
+
+    private static final String FOLIA_MARKER = "io.papermc.paper.threadedregions.RegionizedServer";
+
+    /**
+     * Handle of a repeating task.
+     */
+    public interface Task {
+        void cancel();
+    }
+
+    public static ServerPlatform detect(JavaPlugin plugin) {
+        try {
+            Class.forName(FOLIA_MARKER);
+        } catch (ClassNotFoundException ex) {
+            return new BukkitPlatform(plugin);
+        }
+        return new FoliaPlatform(plugin);
+    }
+
+    /**
+     * Whether chunks and entities are owned by different threads.
+     */
+    public abstract boolean isRegionThreaded();
+
+    /**
+     * Runs {@code action} every {@code periodTicks} on the thread that drives global server work.
+     */
+    public abstract Task runGlobalTimer(Runnable action, long delayTicks, long periodTicks);
+
+    /**
+     * Runs {@code action} on the thread that drives global server work, on a later tick.
+     */
+    public abstract void executeGlobal(Runnable action);
+
+    /**
+     * Runs {@code action} on a background thread.
+     */
+    public abstract void runAsync(Runnable action);
+
+    /**
+     * Runs {@code action} on the thread owning {@code location}; inline when the caller already owns it.
+     */
+    public abstract void execute(Location location, Runnable action);
+
+    /**
+     * Runs {@code action} on the thread owning {@code entity}. {@code retired} runs instead when the entity was
+     * removed before the task could start.
+     */
+    public abstract void execute(Entity entity, Runnable action, Runnable retired);
+
+    /**
+     * Whether the current thread may access the given chunk.
+     */
+    public abstract boolean owns(World world, int chunkX, int chunkZ);
+
+    /**
+     * Whether the current thread may access the given entity.
+     */
+    public abstract boolean owns(Entity entity);
+
+    public boolean owns(Location location) {
+        return owns(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    private static final class BukkitPlatform extends ServerPlatform {
+
+        private final JavaPlugin plugin;
+
+        private BukkitPlatform(JavaPlugin plugin) {
+            this.plugin = plugin;
+        }
+
+        @Override
+        public boolean isRegionThreaded() {
+            return false;
+        }
+
+        @Override
+        public Task runGlobalTimer(Runnable action, long delayTicks, long periodTicks) {
+            BukkitTask task = plugin.getServer().getScheduler().runTaskTimer(plugin, action, delayTicks, periodTicks);
+            return task::cancel;
+        }
+
+        @Override
+        public void executeGlobal(Runnable action) {
+            plugin.getServer().getScheduler().runTask(plugin, action);
+        }
+
+        @Override
+        public void runAsync(Runnable action) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, action);
+        }
+
+        @Override
+        public void execute(Location location, Runnable action) {
+            action.run();
+        }
+
+        @Override
+        public void execute(Entity entity, Runnable action, Runnable retired) {
+            action.run();
+        }
+
+        @Override
+        public boolean owns(World world, int chunkX, int chunkZ) {
+            return true;
+        }
+
+        @Override
+        public boolean owns(Entity entity) {
+            return true;
+        }
+    }
+
+    private static final class FoliaPlatform extends ServerPlatform {
+
+        private final JavaPlugin plugin;
+        private final Object globalScheduler;
+        private final Object regionScheduler;
+        private final Object asyncScheduler;
+        private final Method runAtFixedRate;
+        private final Method globalExecute;
+        private final Method runNow;
+        private final Method regionExecute;
+        private final Method entityScheduler;
+        private final Method entityExecute;
+        private final Method taskCancel;
+        private final Method ownsChunk;
+        private final Method ownsEntity;
+
+        private FoliaPlatform(JavaPlugin plugin) {
+            this.plugin = plugin;
+            try {
+                Class<?> plugins = org.bukkit.plugin.Plugin.class;
+                Method getGlobal = Bukkit.class.getMethod("getGlobalRegionScheduler");
+                Method getRegion = Bukkit.class.getMethod("getRegionScheduler");
+                Method getAsync = Bukkit.class.getMethod("getAsyncScheduler");
+                this.globalScheduler = getGlobal.invoke(null);
+                this.regionScheduler = getRegion.invoke(null);
+                this.asyncScheduler = getAsync.invoke(null);
+                this.runAtFixedRate = getGlobal.getReturnType()
+                    .getMethod("runAtFixedRate", plugins, Consumer.class, long.class, long.class);
+                this.globalExecute = getGlobal.getReturnType().getMethod("execute", plugins, Runnable.class);
+                this.runNow = getAsync.getReturnType().getMethod("runNow", plugins, Consumer.class);
+                this.regionExecute = getRegion.getReturnType()
+                    .getMethod("execute", plugins, Location.class, Runnable.class);
+                this.entityScheduler = Entity.class.getMethod("getScheduler");
+                this.entityExecute = entityScheduler.getReturnType()
+                    .getMethod("execute", plugins, Runnable.class, Runnable.class, long.class);
+                this.taskCancel = runAtFixedRate.getReturnType().getMethod("cancel");
+                this.ownsChunk = Bukkit.class.getMethod("isOwnedByCurrentRegion", World.class, int.class, int.class);
+                this.ownsEntity = Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Folia detected but its scheduler API could not be resolved.", ex);
+            }
+        }
+
+        @Override
+        public boolean isRegionThreaded() {
+            return true;
+        }
+
+        @Override
+        public Task runGlobalTimer(Runnable action, long delayTicks, long periodTicks) {
+            Consumer<Object> body = ignored -> action.run();
+            Object task = invoke(runAtFixedRate, globalScheduler, plugin, body, Math.max(1L, delayTicks),
+                Math.max(1L, periodTicks));
+            return () -> invoke(taskCancel, task);
+        }
+
+        @Override
+        public void executeGlobal(Runnable action) {
+            invoke(globalExecute, globalScheduler, plugin, action);
+        }
+
+        @Override
+        public void runAsync(Runnable action) {
+            Consumer<Object> body = ignored -> action.run();
+            invoke(runNow, asyncScheduler, plugin, body);
+        }
+
+        @Override
+        public void execute(Location location, Runnable action) {
+            if (owns(location)) {
+                action.run();
+            } else {
+                invoke(regionExecute, regionScheduler, plugin, location, action);
+            }
+        }
+
+        @Override
+        public void execute(Entity entity, Runnable action, Runnable retired) {
+            if (owns(entity)) {
+                action.run();
+                return;
+            }
+            Object scheduler = invoke(entityScheduler, entity);
+            if (!(boolean) invoke(entityExecute, scheduler, plugin, action, retired, 1L)) {
+                retired.run();
+            }
+        }
+
+        @Override
+        public boolean owns(World world, int chunkX, int chunkZ) {
+            return (boolean) invoke(ownsChunk, null, world, chunkX, chunkZ);
+        }
+
+        @Override
+        public boolean owns(Entity entity) {
+            return (boolean) invoke(ownsEntity, null, entity);
+        }
+
+        private static Object invoke(Method method, Object target, Object... args) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(cause);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.yourname.animalcare.util;
+
+import org.bukkit.Server;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reports how long recent server ticks took. Paper exposes the real tick time through
+ * {@code Server#getAverageTickTime()}, which is looked up reflectively so the plugin still builds against Spigot.
+ * Without it only the spacing between two calls is known: ticks up to 50 ms look identical there, so they count as
+ * no load, and longer gaps are reported as the tick time. The same fallback is used once the method turns out to be
+ * unsupported, as on Folia, where the gaps are those of the global region tick.
+ */
+public final class ServerTickSampler {
+
+    private static final double TICK_MILLIS = 50.0D;
+    private static final double JITTER_MILLIS = 2.0D;
+
+    private final Server server;
+    private Method averageTickTime;
+    private long lastCallNanos;
+
+    public ServerTickSampler(Server server) {
+        this.server = server;
+        this.averageTickTime = findAverageTickTime(server);
+    }
+
+    private static Method findAverageTickTime(Server server) {
+        try {
+            Method method = server.getClass().getMethod("getAverageTickTime");
+            return method.getReturnType() == double.class ? method : null;
+        } catch (NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    public boolean isPrecise() {
+        return averageTickTime != null;
+    }
+
+    /**
+     * Must be called once per server tick. Returns the tick time in milliseconds, or {@code NaN} on the first call.
+     */
+    public double sample() {
+        long now = System.nanoTime();
+        long previous = lastCallNanos;
+        lastCallNanos = now;
+        if (averageTickTime != null) {
+            try {
+                return (double) averageTickTime.invoke(server);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                // Folia has no single tick to average and throws; fall back to call spacing from now on.
+                averageTickTime = null;
+                return Double.NaN;
+            }
+        }
+        if (previous == 0L) {
+            return Double.NaN;
+        }
+        double gapMillis = (now - previous) / 1_000_000.0D;
+        return gapMillis > TICK_MILLIS + JITTER_MILLIS ? gapMillis : 0.0D;
+    }
+}
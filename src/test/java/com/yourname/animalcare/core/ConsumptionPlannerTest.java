@@ -0,0 +1,80 @@
+package com.yourname.animalcare.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsumptionPlannerTest {
+
+    @Test
+    void planTakesLargestSumNotAboveRequest() {
+        ConsumptionPlanner.Plan plan = ConsumptionPlanner.plan(
+            List.of(new ConsumptionPlanner.Slot(0, 4, 3), new ConsumptionPlanner.Slot(1, 3, 1)), 10);
+
+        assertEquals(8, plan.totalEnergy());
+    }
+
+    @Test
+    void memoReusesTableWhileTroughIsEmptied() {
+        List<ConsumptionPlanner.Slot> slots = new ArrayList<>(List.of(
+            new ConsumptionPlanner.Slot(0, 4, 64),
+            new ConsumptionPlanner.Slot(3, 1, 64)));
+        ConsumptionPlanner.Memo memo = new ConsumptionPlanner.Memo();
+
+        ConsumptionPlanner.Plan first = memo.plan(slots, 10);
+        assertFalse(memo.lastHit());
+        slots = consume(slots, first);
+
+        ConsumptionPlanner.Plan second = memo.plan(slots, 10);
+        assertTrue(memo.lastHit());
+        assertEquals(first.totalEnergy(), second.totalEnergy());
+        assertEquals(ConsumptionPlanner.plan(slots, 10).totalEnergy(), second.totalEnergy());
+    }
+
+    @Test
+    void memoRebuildsWhenPlannedStackRunsOut() {
+        List<ConsumptionPlanner.Slot> slots = List.of(new ConsumptionPlanner.Slot(0, 4, 2));
+        ConsumptionPlanner.Memo memo = new ConsumptionPlanner.Memo();
+
+        ConsumptionPlanner.Plan first = memo.plan(slots, 8);
+        assertEquals(8, first.totalEnergy());
+
+        ConsumptionPlanner.Plan second = memo.plan(List.of(new ConsumptionPlanner.Slot(0, 4, 1)), 8);
+        assertFalse(memo.lastHit());
+        assertEquals(4, second.totalEnergy());
+
+        assertNull(memo.plan(List.of(), 8));
+        assertFalse(memo.lastHit());
+        assertNull(memo.plan(List.of(), 8));
+        assertTrue(memo.lastHit());
+    }
+
+    @Test
+    void memoRebuildsWhenStacksGrow() {
+        ConsumptionPlanner.Memo memo = new ConsumptionPlanner.Memo();
+        memo.plan(List.of(new ConsumptionPlanner.Slot(0, 4, 1)), 8);
+
+        ConsumptionPlanner.Plan refilled = memo.plan(
+            List.of(new ConsumptionPlanner.Slot(0, 4, 1), new ConsumptionPlanner.Slot(1, 4, 1)), 8);
+        assertFalse(memo.lastHit());
+        assertEquals(8, refilled.totalEnergy());
+    }
+
+    private static List<ConsumptionPlanner.Slot> consume(List<ConsumptionPlanner.Slot> slots,
+                                                         ConsumptionPlanner.Plan plan) {
+        List<ConsumptionPlanner.Slot> remaining = new ArrayList<>();
+        for (ConsumptionPlanner.Slot slot : slots) {
+            int used = plan.slotUsage().getOrDefault(slot.index(), 0);
+            if (slot.amount() > used) {
+                remaining.add(new ConsumptionPlanner.Slot(slot.index(), slot.energy(), slot.amount() - used));
+            }
+        }
+        return remaining;
+    }
+}
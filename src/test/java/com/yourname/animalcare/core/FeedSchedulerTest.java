@@ -0,0 +1,112 @@
+package com.yourname.animalcare.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedSchedulerTest {
+
+    @Test
+    void troughsOfOnePenFallDueTogether() {
+        FeedScheduler<TestTrough> scheduler = new FeedScheduler<>(200L, trough -> trough.pen);
+        TestTrough first = new TestTrough(7L, 100);
+        TestTrough second = new TestTrough(7L, 100);
+
+        scheduler.wake(first);
+        scheduler.advance();
+        scheduler.wake(second);
+
+        assertEquals(scheduler.getDeadline(first), scheduler.getDeadline(second));
+        List<TestTrough> due = List.of();
+        while (due.isEmpty()) {
+            due = scheduler.advance();
+        }
+        assertEquals(2, due.size());
+        assertTrue(due.contains(first) && due.contains(second));
+        assertTrue(scheduler.takeDemand(first));
+        assertFalse(scheduler.takeDemand(first));
+    }
+
+    @Test
+    void feedGroupFeedsHungriestUpToTheLimit() {
+        FeedScheduler<TestTrough> scheduler = new FeedScheduler<>(200L, trough -> trough.pen);
+        TestTrough trough = new TestTrough(1L, 100);
+        int[] hunger = {50, 80, 70};
+        FeedScheduler.Herd<TestTrough, Integer> herd = new FeedScheduler.Herd<>() {
+            @Override
+            public void offer(List<TestTrough> sources, FeedAllocator<Integer> allocator) {
+                for (int animal = 0; animal < hunger.length; animal++) {
+                    allocator.offer(animal, animal, 100 - hunger[animal], true);
+                }
+            }
+
+            @Override
+            public void feed(Integer animal, int energy) {
+                hunger[animal] += energy;
+            }
+        };
+
+        boolean unmetDemand = scheduler.feedGroup(List.of(trough), 2, herd);
+
+        assertTrue(unmetDemand);
+        assertEquals(100, hunger[0]);
+        assertEquals(80, hunger[1]);
+        assertEquals(100, hunger[2]);
+        assertEquals(20, trough.energy);
+    }
+
+    @Test
+    void retireForgetsDemandAndDeadline() {
+        FeedScheduler<TestTrough> scheduler = new FeedScheduler<>(200L, trough -> trough.pen);
+        TestTrough trough = new TestTrough(3L, 0);
+
+        scheduler.wake(trough);
+        scheduler.retire(trough);
+
+        assertFalse(trough.isDemanded());
+        assertNull(scheduler.getDeadline(trough));
+        assertEquals(0, scheduler.size());
+    }
+
+    private static final class TestTrough extends FeedScheduler.Trough implements FeedScheduler.Source<TestTrough> {
+        private final long pen;
+        private int energy;
+
+        private TestTrough(long pen, int energy) {
+            this.pen = pen;
+            this.energy = energy;
+        }
+
+        @Override
+        public TestTrough trough() {
+            return this;
+        }
+
+        @Override
+        public int passes() {
+            return 1;
+        }
+
+        @Override
+        public boolean hasFeed() {
+            return energy > 0;
+        }
+
+        @Override
+        public int availableEnergy() {
+            return energy;
+        }
+
+        @Override
+        public int consume(int requiredEnergy) {
+            int taken = Math.min(energy, requiredEnergy);
+            energy -= taken;
+            return taken;
+        }
+    }
+}
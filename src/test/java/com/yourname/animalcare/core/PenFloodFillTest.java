@@ -0,0 +1,66 @@
+package com.yourname.animalcare.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PenFloodFillTest {
+
+    /**
+     * Flat 19 x 19 pen floor around the origin, fenced off by everything else being unwalkable.
+     */
+    private static final PenFloodFill.Walkability PEN = (x, y, z) -> y == 0 && Math.abs(x) <= 9 && Math.abs(z) <= 9;
+
+    private static final PenFloodFill.Walkability OPEN = (x, y, z) -> y == 0;
+
+    @Test
+    void enclosedAreaReportsItsBounds() {
+        PenFloodFill.Result result = new PenFloodFill(15, 4).fill(PEN, 0, 0, 0);
+
+        assertFalse(result.isEscaped());
+        assertFalse(result.isInconclusive());
+        assertEquals(-9, result.getMinX());
+        assertEquals(9, result.getMaxX());
+        assertEquals(-9, result.getMinZ());
+        assertEquals(9, result.getMaxZ());
+    }
+
+    @Test
+    void openTerrainEscapes() {
+        PenFloodFill.Result result = new PenFloodFill(15, 4, 0, true).fill(OPEN, 0, 0, 0);
+
+        assertTrue(result.isEscaped());
+        assertFalse(result.isInconclusive());
+    }
+
+    @Test
+    void cappedEnclosedAreaIsInconclusiveNotEscaped() {
+        PenFloodFill.Result result = new PenFloodFill(15, 4, 100, false).fill(PEN, 0, 0, 0);
+
+        assertTrue(result.isInconclusive());
+        assertFalse(result.isEscaped());
+        assertEquals(100, result.getVisitedNodes());
+    }
+
+    @Test
+    void capAboveTheAreaDoesNotChangeTheResult() {
+        PenFloodFill.Result result = new PenFloodFill(15, 4, 19 * 19 + 1, true).fill(PEN, 0, 0, 0);
+
+        assertFalse(result.isEscaped());
+        assertFalse(result.isInconclusive());
+    }
+
+    @Test
+    void slicedCappedFillStaysInconclusive() {
+        PenFloodFill.Search search = new PenFloodFill(15, 4, 100, false).start(PEN, 0, 0, 0);
+        while (!search.advance(0L)) {
+            assertNull(search.getResult());
+        }
+
+        assertTrue(search.getResult().isInconclusive());
+        assertFalse(search.getResult().isEscaped());
+    }
+}